@@ -2,8 +2,10 @@ package x0j3m.virtualwardrobe;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
 
 @SpringBootApplication
+@EntityScan("x0j3m.virtualwardrobe.model")
 public class VirtualWardrobeApplication {
 
     public static void main(String[] args) {
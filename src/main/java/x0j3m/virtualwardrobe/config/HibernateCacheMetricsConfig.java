@@ -0,0 +1,56 @@
+package x0j3m.virtualwardrobe.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.QueryResultsRegion;
+import org.hibernate.cache.spi.Region;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hit ratios of the Hibernate second-level cache regions and the query cache, next to the
+ * raw hit/miss counters that Spring Boot already exports from Hibernate statistics. Query
+ * result regions are listed with the domain data regions but have their own statistics, which
+ * Hibernate refuses to return as domain data region statistics.
+ */
+@Configuration
+public class HibernateCacheMetricsConfig {
+    @Bean
+    public MeterBinder hibernateCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheImplementor cache = sessionFactory.getCache();
+        return registry -> {
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                CacheRegionStatistics regionStatistics = regionStatistics(statistics, cache.getRegion(region), region);
+                if (regionStatistics == null) {
+                    continue;
+                }
+                Gauge.builder("hibernate.cache.hit.ratio", regionStatistics,
+                                stats -> ratio(stats.getHitCount(), stats.getMissCount()))
+                        .tag("region", region)
+                        .register(registry);
+            }
+            Gauge.builder("hibernate.query.cache.hit.ratio", statistics,
+                            stats -> ratio(stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount()))
+                    .register(registry);
+        };
+    }
+
+    private static CacheRegionStatistics regionStatistics(Statistics statistics, Region region, String name) {
+        if (region == null || region instanceof QueryResultsRegion) {
+            return statistics.getQueryRegionStatistics(name);
+        }
+        return statistics.getDomainDataRegionStatistics(name);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
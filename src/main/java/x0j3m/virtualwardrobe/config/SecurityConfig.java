@@ -3,45 +3,84 @@ package x0j3m.virtualwardrobe.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import x0j3m.virtualwardrobe.security.AuthenticationCache;
+import x0j3m.virtualwardrobe.security.BCryptCostCalibrator;
+import x0j3m.virtualwardrobe.security.CachingAuthenticationProvider;
+import x0j3m.virtualwardrobe.security.CostAwareBCryptPasswordEncoder;
+import x0j3m.virtualwardrobe.security.LoginThrottle;
+import x0j3m.virtualwardrobe.security.ThrottlingAuthenticationEntryPoint;
+import x0j3m.virtualwardrobe.security.ThrottlingAuthenticationProvider;
+import x0j3m.virtualwardrobe.security.TokenAuthenticationFilter;
+import x0j3m.virtualwardrobe.security.TokenService;
 import x0j3m.virtualwardrobe.service.UserDetailsServiceImpl;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
+    private final AuthenticationCache authenticationCache;
+    private final TokenService tokenService;
+    private final LoginThrottle loginThrottle;
     private final int strength;
 
-    public SecurityConfig(UserDetailsServiceImpl userDetailsService, @Value("${security.bcrypt.strength:12}") int strength) {
+    public SecurityConfig(UserDetailsServiceImpl userDetailsService,
+                          AuthenticationCache authenticationCache,
+                          TokenService tokenService,
+                          LoginThrottle loginThrottle,
+                          @Value("${security.bcrypt.strength:12}") int strength) {
         this.userDetailsService = userDetailsService;
+        this.authenticationCache = authenticationCache;
+        this.tokenService = tokenService;
+        this.loginThrottle = loginThrottle;
         this.strength = strength;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        BasicAuthenticationEntryPoint basicEntryPoint = new BasicAuthenticationEntryPoint();
+        basicEntryPoint.setRealmName("Realm");
         return http
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/user/register").permitAll()
+                        .requestMatchers("/user/register", "/user/available").permitAll()
                         .anyRequest().authenticated())
                 .csrf(AbstractHttpConfigurer::disable)
-                .httpBasic(Customizer.withDefaults())
+                .httpBasic(basic -> basic
+                        .authenticationEntryPoint(new ThrottlingAuthenticationEntryPoint(basicEntryPoint)))
+                .addFilterBefore(
+                        new TokenAuthenticationFilter(tokenService, new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)),
+                        BasicAuthenticationFilter.class)
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(strength);
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.target-latency:}") Duration targetLatency,
+                                           @Value("${security.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${security.bcrypt.max-strength:16}") int maxStrength) {
+        int cost = targetLatency == null
+                ? strength
+                : BCryptCostCalibrator.calibrate(targetLatency, minStrength, maxStrength);
+        CostAwareBCryptPasswordEncoder bcrypt = new CostAwareBCryptPasswordEncoder(cost);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     @Bean
@@ -49,6 +88,9 @@ public class SecurityConfig {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setPasswordEncoder(passwordEncoder);
         provider.setUserDetailsService(userDetailsService);
-        return provider;
+        provider.setUserDetailsPasswordService(userDetailsService);
+        return new CachingAuthenticationProvider(
+                new ThrottlingAuthenticationProvider(provider, loginThrottle),
+                authenticationCache);
     }
 }
\ No newline at end of file
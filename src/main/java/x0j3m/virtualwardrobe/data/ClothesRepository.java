@@ -1,13 +1,105 @@
 package x0j3m.virtualwardrobe.data;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 import x0j3m.virtualwardrobe.model.Clothes;
+import x0j3m.virtualwardrobe.model.ClothesView;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Color and type are lazy on {@link Clothes}; the read methods below that return clothes to
+ * clients either fetch both in the same query or project the joined row into a {@link ClothesView},
+ * so a list costs one statement whatever its size. Both columns are nullable, so the joins are
+ * outer joins and clothes without a color or type are still read, with null in those fields.
+ */
 @Repository
-public interface ClothesRepository extends CrudRepository<Clothes, Long>, PagingAndSortingRepository<Clothes, Long> {
+public interface ClothesRepository extends CrudRepository<Clothes, Long>, PagingAndSortingRepository<Clothes, Long>,
+        ClothesSearch {
+    String VIEW_QUERY = "select new x0j3m.virtualwardrobe.model.ClothesView("
+            + "c.id, co.id, co.name, ct.id, ct.name, ct.layer) from Clothes c left join c.color co left join c.type ct";
+
+    @Override
+    @EntityGraph(attributePaths = {"color", "type"})
+    Optional<Clothes> findById(Long id);
+
+    @EntityGraph(attributePaths = {"color", "type"})
     Iterable<Clothes> findByColor_Name(String colorName);
 
+    @EntityGraph(attributePaths = {"color", "type"})
     Iterable<Clothes> findByType_Name(String typeName);
+
+    /**
+     * Reads the row with {@code SELECT ... FOR UPDATE}, so concurrent writers of the same clothes
+     * wait until this transaction ends. Color and type are left lazy; fetching them here would
+     * lock their rows as well.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Clothes c where c.id = :id")
+    Optional<Clothes> findForUpdateById(Long id);
+
+    /**
+     * Deletes the row with one statement and returns the number of rows deleted, 0 when another
+     * transaction deleted it first.
+     */
+    @Modifying
+    @Query("delete from Clothes c where c.id = :id")
+    int deleteClothesById(Long id);
+
+    <S extends Clothes> S saveAndFlush(S clothes);
+
+    void flush();
+
+    /**
+     * Page of rows without the {@code COUNT(*)} a {@code Page} needs: one extra row is read to
+     * tell whether there is a next page. Rows are projected straight into views, so no entities
+     * or persistence context snapshots are created.
+     */
+    @Query(VIEW_QUERY)
+    Slice<ClothesView> findViewsBy(Pageable pageable);
+
+    @Query(VIEW_QUERY + " where c.id = :id")
+    Optional<ClothesView> findViewById(Long id);
+
+    /**
+     * All clothes in id order, read from the database in chunks of the fetch size. The rows are
+     * projected, so nothing accumulates in the persistence context however many are read. Must be
+     * consumed and closed inside a transaction.
+     */
+    @Query(VIEW_QUERY + " order by c.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<ClothesView> streamViewsBy();
+
+    @EntityGraph(attributePaths = {"color", "type"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Clothes> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("select c.color.id as colorId, c.type.id as typeId, count(c) as count "
+            + "from Clothes c group by c.color.id, c.type.id")
+    List<ColorAndTypeCount> countByColorAndType();
+
+    interface ColorAndTypeCount {
+        Long getColorId();
+
+        Long getTypeId();
+
+        long getCount();
+    }
 }
@@ -0,0 +1,22 @@
+package x0j3m.virtualwardrobe.data;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesView;
+
+/**
+ * Clothes filtered by any combination of color, type and layer. Only the given criteria end up in
+ * the WHERE clause, so every combination is one joined query that can use the index covering it:
+ * {@code clothes(color_id, type_id)}, the foreign key index on {@code clothes(type_id)} or
+ * {@code clothes_types(layer)}.
+ */
+public interface ClothesSearch {
+    Slice<ClothesView> search(Filter filter, Pageable pageable) throws IllegalArgumentException;
+
+    /**
+     * Search criteria; a null component matches everything.
+     */
+    record Filter(Long colorId, Long typeId, ClothesLayer layer) {
+    }
+}
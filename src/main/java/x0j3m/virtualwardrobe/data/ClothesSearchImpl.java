@@ -0,0 +1,83 @@
+package x0j3m.virtualwardrobe.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import x0j3m.virtualwardrobe.model.Clothes;
+import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.ClothesView;
+import x0j3m.virtualwardrobe.model.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ClothesSearchImpl implements ClothesSearch {
+    private final EntityManager entityManager;
+
+    ClothesSearchImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Slice<ClothesView> search(Filter filter, Pageable pageable) throws IllegalArgumentException {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ClothesView> query = builder.createQuery(ClothesView.class);
+        Root<Clothes> clothes = query.from(Clothes.class);
+        Join<Clothes, Color> color = clothes.join("color", JoinType.LEFT);
+        Join<Clothes, ClothesType> type = clothes.join("type", JoinType.LEFT);
+        query.select(builder.construct(ClothesView.class,
+                clothes.get("id"), color.get("id"), color.get("name"), type.get("id"), type.get("name"), type.get("layer")));
+
+        List<Predicate> predicates = new ArrayList<>(3);
+        if (filter.colorId() != null) {
+            predicates.add(builder.equal(clothes.get("color").get("id"), filter.colorId()));
+        }
+        if (filter.typeId() != null) {
+            predicates.add(builder.equal(clothes.get("type").get("id"), filter.typeId()));
+        }
+        if (filter.layer() != null) {
+            predicates.add(builder.equal(type.get("layer"), filter.layer()));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+
+        List<Order> orders = new ArrayList<>();
+        boolean byId = false;
+        for (Sort.Order order : pageable.getSort()) {
+            From<?, ?> from = clothes;
+            String property = order.getProperty();
+            if (property.startsWith("color.")) {
+                from = color;
+                property = property.substring("color.".length());
+            } else if (property.startsWith("type.")) {
+                from = type;
+                property = property.substring("type.".length());
+            } else {
+                byId |= property.equals("id");
+            }
+            orders.add(order.isAscending() ? builder.asc(from.get(property)) : builder.desc(from.get(property)));
+        }
+        if (!byId) {
+            orders.add(builder.asc(clothes.get("id")));
+        }
+        query.orderBy(orders);
+
+        List<ClothesView> rows = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+}
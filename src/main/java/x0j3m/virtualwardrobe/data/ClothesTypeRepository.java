@@ -1,15 +1,39 @@
 package x0j3m.virtualwardrobe.data;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.ClothesTypeView;
 
 import java.util.Optional;
 
 @Repository
 public interface ClothesTypeRepository extends CrudRepository<ClothesType, Long>, PagingAndSortingRepository<ClothesType, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<ClothesType> findByName(String name);
 
     void deleteByName(String name);
+
+    ClothesType getReferenceById(Long id);
+
+    <S extends ClothesType> S saveAndFlush(S clothesType);
+
+    /**
+     * Page of rows without the {@code COUNT(*)} a {@code Page} needs: one extra row is read to
+     * tell whether there is a next page. Rows are projected straight into views.
+     */
+    Slice<ClothesTypeView> findViewsBy(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<ClothesType> findAllBy(ScrollPosition position, Sort sort, Limit limit);
 }
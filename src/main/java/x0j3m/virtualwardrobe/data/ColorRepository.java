@@ -1,15 +1,39 @@
 package x0j3m.virtualwardrobe.data;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 import x0j3m.virtualwardrobe.model.Color;
+import x0j3m.virtualwardrobe.model.ColorView;
 
 import java.util.Optional;
 
 @Repository
 public interface ColorRepository extends CrudRepository<Color, Long>, PagingAndSortingRepository<Color, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Color> findByName(String name);
 
     void deleteByName(String name);
+
+    Color getReferenceById(Long id);
+
+    <S extends Color> S saveAndFlush(S color);
+
+    /**
+     * Page of rows without the {@code COUNT(*)} a {@code Page} needs: one extra row is read to
+     * tell whether there is a next page. Rows are projected straight into views.
+     */
+    Slice<ColorView> findViewsBy(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Window<Color> findAllBy(ScrollPosition position, Sort sort, Limit limit);
 }
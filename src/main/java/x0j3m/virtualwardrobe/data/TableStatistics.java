@@ -0,0 +1,72 @@
+package x0j3m.virtualwardrobe.data;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Row totals for list responses. A {@code COUNT(*)} reads the whole table or index, so for tables
+ * the database estimates to hold at least {@code pagination.exact-total-threshold} rows the
+ * estimate from its table statistics is returned instead, flagged as not exact.
+ */
+@Component
+public class TableStatistics {
+    private static final String MYSQL_ESTIMATE =
+            "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+    private static final String H2_ESTIMATE =
+            "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_NAME = UPPER(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long exactTotalThreshold;
+    private volatile String estimateQuery;
+
+    public TableStatistics(JdbcTemplate jdbcTemplate,
+                           @Value("${pagination.exact-total-threshold:100000}") long exactTotalThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exactTotalThreshold = exactTotalThreshold;
+    }
+
+    public Total total(String table, LongSupplier exactCount) {
+        long estimate = estimateRowCount(table);
+        if (estimate >= exactTotalThreshold) {
+            return new Total(estimate, false);
+        }
+        return new Total(exactCount.getAsLong(), true);
+    }
+
+    /**
+     * Returns the row count estimated by the database, or -1 if it does not keep one.
+     */
+    public long estimateRowCount(String table) {
+        String query = estimateQuery();
+        if (query.isEmpty()) {
+            return -1;
+        }
+        List<Long> estimates = jdbcTemplate.queryForList(query, Long.class, table);
+        return estimates.isEmpty() || estimates.get(0) == null ? -1 : estimates.get(0);
+    }
+
+    private String estimateQuery() {
+        String query = estimateQuery;
+        if (query == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if ("MySQL".equals(product)) {
+                query = MYSQL_ESTIMATE;
+            } else if ("H2".equals(product)) {
+                query = H2_ESTIMATE;
+            } else {
+                query = "";
+            }
+            estimateQuery = query;
+        }
+        return query;
+    }
+
+    public record Total(long count, boolean exact) {
+    }
+}
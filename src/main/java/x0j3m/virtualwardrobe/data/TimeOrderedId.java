@@ -0,0 +1,19 @@
+package x0j3m.virtualwardrobe.data;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates the annotated id with {@link TimeOrderedIdGenerator}, entirely in memory. An
+ * alternative to a pooled {@code @TableGenerator} for entities inserted in bulk; the ids are
+ * larger than 2^53, so they must be sent to JavaScript clients as strings.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
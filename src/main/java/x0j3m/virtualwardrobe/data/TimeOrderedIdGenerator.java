@@ -0,0 +1,72 @@
+package x0j3m.virtualwardrobe.data;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.lang.reflect.Member;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 64-bit ids made of 41 bits of milliseconds since 2024-01-01, a 10-bit node id and a 12-bit
+ * sequence, so ids sort by creation time and never need a database round trip. The timestamp
+ * and sequence live in one {@link AtomicLong} updated with CAS; when more than 4096 ids are
+ * taken in one millisecond the sequence carries into the timestamp instead of waiting.
+ * The node id is read from the {@value #NODE_SETTING} setting and must differ per instance.
+ */
+public class TimeOrderedIdGenerator implements IdentifierGenerator, AnnotationBasedGenerator<TimeOrderedId> {
+    public static final String NODE_SETTING = "virtualwardrobe.id.node";
+
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+
+    private final LongSupplier clock;
+    private final AtomicLong state = new AtomicLong();
+    private long node;
+
+    public TimeOrderedIdGenerator() {
+        this.clock = System::currentTimeMillis;
+    }
+
+    public TimeOrderedIdGenerator(long node, LongSupplier clock) {
+        this.node = checkNode(node);
+        this.clock = clock;
+    }
+
+    @Override
+    public void initialize(TimeOrderedId annotation, Member member, GeneratorCreationContext context) {
+        this.node = checkNode(context.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSetting(NODE_SETTING, value -> Long.parseLong(value.toString()), 0L));
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return nextId();
+    }
+
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = state.get();
+            next = Math.max(previous + 1, now);
+        } while (!state.compareAndSet(previous, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    private static long checkNode(long node) {
+        if (node < 0 || node >= 1L << NODE_BITS) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + ((1L << NODE_BITS) - 1));
+        }
+        return node;
+    }
+}
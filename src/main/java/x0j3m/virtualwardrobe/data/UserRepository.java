@@ -1,15 +1,40 @@
 package x0j3m.virtualwardrobe.data;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 import x0j3m.virtualwardrobe.model.User;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends CrudRepository<User, Long>, PagingAndSortingRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<UsernameAndEmail> streamAllBy();
+
+    <S extends User> S saveAndFlush(S user);
+
+    /**
+     * Replaces the password hash only if it is still {@code oldPassword}, and returns the number
+     * of rows updated: 0 when the password was changed since that hash was read.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update User u set u.password = :newPassword where u.username = :username and u.password = :oldPassword")
+    int updatePassword(String username, String oldPassword, String newPassword);
+
+    interface UsernameAndEmail {
+        String getUsername();
+
+        String getEmail();
+    }
 }
@@ -9,15 +9,26 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor(force = true)
 @Entity
-@Table(name = "clothes")
+@Table(name = "clothes", indexes = {
+        @Index(name = "idx_clothes_color_type", columnList = "color_id, type_id"),
+        @Index(name = "idx_clothes_type", columnList = "type_id")
+})
 public class Clothes {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "clothes_id")
+    @TableGenerator(
+            name = "clothes_id",
+            table = "id_generators",
+            pkColumnName = "segment",
+            valueColumnName = "next_val",
+            pkColumnValue = "clothes",
+            allocationSize = 50
+    )
     private final Long id;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "color_id")
     private final Color color;
-    @ManyToOne(targetEntity = ClothesType.class)
+    @ManyToOne(targetEntity = ClothesType.class, fetch = FetchType.LAZY)
     @JoinColumn(name = "type_id")
     private final ClothesType type;
 
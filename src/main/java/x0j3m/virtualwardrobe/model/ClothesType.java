@@ -1,18 +1,34 @@
 package x0j3m.virtualwardrobe.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor(force = true)
 @Entity
-@Table(name = "clothes_types")
+@Table(name = "clothes_types", indexes = @Index(name = "idx_clothes_types_layer", columnList = "layer"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@BatchSize(size = 50)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class ClothesType {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "clothes_type_id")
+    @TableGenerator(
+            name = "clothes_type_id",
+            table = "id_generators",
+            pkColumnName = "segment",
+            valueColumnName = "next_val",
+            pkColumnValue = "clothes_types",
+            allocationSize = 10
+    )
     private final Long id;
     @Column(name = "name", nullable = false, unique = true)
     private final String name;
@@ -0,0 +1,10 @@
+package x0j3m.virtualwardrobe.model;
+
+/**
+ * Read-only clothes type as returned by the API, projected by queries without loading the entity.
+ */
+public record ClothesTypeView(Long id, String name, ClothesLayer layer) {
+    public static ClothesTypeView of(ClothesType clothesType) {
+        return new ClothesTypeView(clothesType.getId(), clothesType.getName(), clothesType.getLayer());
+    }
+}
@@ -0,0 +1,37 @@
+package x0j3m.virtualwardrobe.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Read-only clothes as returned by the API. The flat components are what a JPQL constructor
+ * expression can fill from one joined row; the JSON keeps the nested color and type objects the
+ * API has always returned, and null for a color or type the clothes do not have.
+ */
+@JsonPropertyOrder({"id", "color", "type"})
+public record ClothesView(Long id,
+                          @JsonIgnore Long colorId,
+                          @JsonIgnore String colorName,
+                          @JsonIgnore Long typeId,
+                          @JsonIgnore String typeName,
+                          @JsonIgnore ClothesLayer layer) {
+    public static ClothesView of(Clothes clothes) {
+        Color color = clothes.getColor();
+        ClothesType type = clothes.getType();
+        return new ClothesView(clothes.getId(),
+                color == null ? null : color.getId(), color == null ? null : color.getName(),
+                type == null ? null : type.getId(), type == null ? null : type.getName(),
+                type == null ? null : type.getLayer());
+    }
+
+    @JsonProperty("color")
+    public ColorView color() {
+        return colorId == null ? null : new ColorView(colorId, colorName);
+    }
+
+    @JsonProperty("type")
+    public ClothesTypeView type() {
+        return typeId == null ? null : new ClothesTypeView(typeId, typeName, layer);
+    }
+}
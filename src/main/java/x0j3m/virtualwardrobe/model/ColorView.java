@@ -0,0 +1,10 @@
+package x0j3m.virtualwardrobe.model;
+
+/**
+ * Read-only color as returned by the API, projected by queries without loading the entity.
+ */
+public record ColorView(Long id, String name) {
+    public static ColorView of(Color color) {
+        return new ColorView(color.getId(), color.getName());
+    }
+}
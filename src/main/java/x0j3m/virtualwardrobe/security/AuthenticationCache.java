@@ -0,0 +1,85 @@
+package x0j3m.virtualwardrobe.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import x0j3m.virtualwardrobe.service.UserChangedEvent;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Remembers recently verified username/password pairs so that repeated HTTP Basic
+ * requests skip the BCrypt check. Only an HMAC of the password, keyed with a random
+ * per-process secret, is kept in memory.
+ */
+@Component
+public class AuthenticationCache {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, Entry> cache;
+    private final SecretKeySpec key;
+
+    public AuthenticationCache(@Value("${security.auth-cache.maximum-size:10000}") long maximumSize,
+                               @Value("${security.auth-cache.ttl:5m}") Duration ttl,
+                               MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "authentication");
+    }
+
+    public UsernamePasswordAuthenticationToken get(String username, String password) {
+        Entry entry = cache.getIfPresent(username);
+        if (entry == null || !MessageDigest.isEqual(entry.digest(), digest(password))) {
+            return null;
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(entry.principal(), null, entry.authorities());
+    }
+
+    public void put(String username, String password, Authentication authentication) {
+        cache.put(username, new Entry(digest(password), authentication.getPrincipal(), authentication.getAuthorities()));
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isCreated()) {
+            invalidate(event.previous().getUsername());
+        }
+    }
+
+    private byte[] digest(String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(byte[] digest, Object principal, Collection<? extends GrantedAuthority> authorities) {
+    }
+}
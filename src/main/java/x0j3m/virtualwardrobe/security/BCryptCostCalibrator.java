@@ -0,0 +1,47 @@
+package x0j3m.virtualwardrobe.security;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt cost for the current host. Each cost step doubles the hashing
+ * time, so the calibrator walks up from the minimum cost and keeps the highest one
+ * whose measured hashing time still fits into the target latency.
+ */
+public final class BCryptCostCalibrator {
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+    private static final int SAMPLES = 3;
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(Duration targetLatency, int minStrength, int maxStrength) throws IllegalArgumentException {
+        if (targetLatency == null || targetLatency.isNegative() || targetLatency.isZero()) {
+            throw new IllegalArgumentException("Target latency must be positive");
+        }
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalArgumentException("BCrypt strength must be between 4 and 31");
+        }
+
+        measure(minStrength);
+        int strength = minStrength;
+        Duration latency = measure(strength);
+        while (strength < maxStrength && latency.multipliedBy(2).compareTo(targetLatency) <= 0) {
+            strength++;
+            latency = measure(strength);
+        }
+        return latency.compareTo(targetLatency) > 0 && strength > minStrength ? strength - 1 : strength;
+    }
+
+    public static Duration measure(int strength) {
+        String salt = BCrypt.gensalt(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Duration.ofNanos(best);
+    }
+}
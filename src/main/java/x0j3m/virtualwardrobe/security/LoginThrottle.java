@@ -0,0 +1,151 @@
+package x0j3m.virtualwardrobe.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Token buckets that limit failed logins, one per username and one per client address; an
+ * attempt is rejected when either is empty, so rotating usernames from one address is throttled
+ * as well. A username bucket holds {@code burst} attempts and an address bucket
+ * {@code address-burst}, and both regain one every {@code refill}. A bucket is stored as the time
+ * it is next full and expires at that time, when it would no longer change any decision, so
+ * buckets are only ever dropped by time and never to make room for others.
+ */
+@Component
+public class LoginThrottle {
+    private final Cache<String, Long> usernames;
+    private final Cache<String, Long> addresses;
+    private final Ticker ticker;
+    private final long refillNanos;
+    private final long usernameBurstNanos;
+    private final long addressBurstNanos;
+    private final Counter rejected;
+
+    @Autowired
+    public LoginThrottle(@Value("${security.login-throttle.burst:5}") int burst,
+                         @Value("${security.login-throttle.address-burst:20}") int addressBurst,
+                         @Value("${security.login-throttle.refill:12s}") Duration refill,
+                         MeterRegistry meterRegistry) {
+        this(burst, addressBurst, refill, meterRegistry, Ticker.systemTicker());
+    }
+
+    public LoginThrottle(int burst, int addressBurst, Duration refill, MeterRegistry meterRegistry, Ticker ticker) {
+        if (burst < 1 || addressBurst < 1) {
+            throw new IllegalArgumentException("Burst must be greater than 0");
+        }
+        if (refill.isNegative() || refill.isZero()) {
+            throw new IllegalArgumentException("Refill must be positive");
+        }
+        this.ticker = ticker;
+        this.refillNanos = refill.toNanos();
+        this.usernameBurstNanos = refillNanos * burst;
+        this.addressBurstNanos = refillNanos * addressBurst;
+        this.usernames = buckets(ticker);
+        this.addresses = buckets(ticker);
+        this.rejected = Counter.builder("security.login.throttled").register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, usernames, "login-throttle");
+        CaffeineCacheMetrics.monitor(meterRegistry, addresses, "login-throttle-address");
+    }
+
+    /**
+     * Takes one attempt from the bucket for this username and from the one for this address, or
+     * throws {@link LoginThrottledException} and takes nothing when either is empty. Checking and
+     * taking is one atomic step per bucket, so concurrent attempts cannot all pass before any of
+     * them fails. Once the attempt is over, call {@link #reset} if it succeeded or
+     * {@link #release} if it ended without checking the password; a failed attempt keeps its
+     * tokens.
+     */
+    public void acquire(String username, String address) throws LoginThrottledException {
+        long now = ticker.read();
+        long wait = take(usernames, username, usernameBurstNanos, now);
+        if (wait == 0 && address != null) {
+            wait = take(addresses, address, addressBurstNanos, now);
+            if (wait > 0) {
+                give(usernames, username, now);
+            }
+        }
+        if (wait > 0) {
+            rejected.increment();
+            throw new LoginThrottledException("Too many failed login attempts", Duration.ofNanos(wait));
+        }
+    }
+
+    /**
+     * Gives back the attempts taken by {@link #acquire}.
+     */
+    public void release(String username, String address) {
+        long now = ticker.read();
+        give(usernames, username, now);
+        if (address != null) {
+            give(addresses, address, now);
+        }
+    }
+
+    /**
+     * Called after a successful login. The username bucket is refilled and the address only gets
+     * back the attempt this login took; refilling the address bucket would let a client with one
+     * valid account keep spraying other usernames.
+     */
+    public void reset(String username, String address) {
+        usernames.invalidate(username);
+        if (address != null) {
+            give(addresses, address, ticker.read());
+        }
+    }
+
+    private long wait(Long fullAt, long burstNanos, long now) {
+        return fullAt == null ? 0 : Math.max(0, fullAt - burstNanos + refillNanos - now);
+    }
+
+    /**
+     * Returns 0 after taking an attempt, or how long until the bucket has one again.
+     */
+    private long take(Cache<String, Long> buckets, String key, long burstNanos, long now) {
+        long[] wait = new long[1];
+        buckets.asMap().compute(key, (unused, fullAt) -> {
+            wait[0] = wait(fullAt, burstNanos, now);
+            if (wait[0] > 0) {
+                return fullAt;
+            }
+            return (fullAt == null ? now : Math.max(fullAt, now)) + refillNanos;
+        });
+        return wait[0];
+    }
+
+    private void give(Cache<String, Long> buckets, String key, long now) {
+        buckets.asMap().computeIfPresent(key, (unused, fullAt) -> fullAt - refillNanos > now ? fullAt - refillNanos : null);
+    }
+
+    private static Cache<String, Long> buckets(Ticker ticker) {
+        return Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String key, Long fullAt, long currentTime) {
+                        return Math.max(0, fullAt - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Long fullAt, long currentTime, long currentDuration) {
+                        return Math.max(0, fullAt - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Long fullAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package x0j3m.virtualwardrobe.security;
+
+import org.springframework.security.core.AuthenticationException;
+
+import java.time.Duration;
+
+public class LoginThrottledException extends AuthenticationException {
+    private final Duration retryAfter;
+
+    public LoginThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,84 @@
+package x0j3m.virtualwardrobe.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small dedicated pool so that a burst of registrations or
+ * password changes cannot occupy every request thread with BCrypt work. When both the
+ * workers and the queue are busy the task is rejected immediately instead of waiting.
+ */
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+    private final ThreadPoolExecutor executor;
+    private final Timer queueWait;
+    private final Timer hashTime;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(@Value("${security.hashing.threads:0}") int threads,
+                                   @Value("${security.hashing.queue-capacity:32}") int queueCapacity,
+                                   MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.queueWait = Timer.builder("security.hashing.queue.wait").register(meterRegistry);
+        this.hashTime = Timer.builder("security.hashing.time").register(meterRegistry);
+        this.rejected = Counter.builder("security.hashing.rejected").register(meterRegistry);
+        meterRegistry.gauge("security.hashing.queue.size", executor.getQueue(), queue -> queue.size());
+    }
+
+    public <T> T execute(Supplier<T> task) throws PasswordHashingRejectedException {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTime.record(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Password hashing capacity exceeded");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package x0j3m.virtualwardrobe.security;
+
+public class PasswordHashingRejectedException extends RuntimeException {
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package x0j3m.virtualwardrobe.security;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+
+import java.io.IOException;
+
+/**
+ * Answers throttled logins with 429 and a Retry-After header instead of the 401 challenge,
+ * so clients back off rather than retry with the same credentials.
+ */
+public class ThrottlingAuthenticationEntryPoint implements AuthenticationEntryPoint {
+    private final AuthenticationEntryPoint delegate;
+
+    public ThrottlingAuthenticationEntryPoint(AuthenticationEntryPoint delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void commence(HttpServletRequest request, HttpServletResponse response,
+                         AuthenticationException authException) throws IOException, ServletException {
+        if (authException instanceof LoginThrottledException throttled) {
+            long seconds = Math.max(1, (throttled.getRetryAfter().toMillis() + 999) / 1000);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        delegate.commence(request, response, authException);
+    }
+}
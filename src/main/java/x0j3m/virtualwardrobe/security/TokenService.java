@@ -0,0 +1,188 @@
+package x0j3m.virtualwardrobe.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.stereotype.Component;
+import x0j3m.virtualwardrobe.model.Role;
+import x0j3m.virtualwardrobe.model.User;
+import x0j3m.virtualwardrobe.service.UserChangedEvent;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies short-lived HMAC-SHA256 signed bearer tokens.
+ * <p>
+ * A token carries the user id, username, role, the time of the original login and its own
+ * issue and expiry times, so verifying it needs neither a database query nor a password hash.
+ * Tokens can be refreshed until {@code security.token.max-age} has passed since the original
+ * login. Revocation is per user: every token issued before the revocation time is rejected.
+ * If {@code security.token.secret} is blank, a random key is generated and tokens do not
+ * survive a restart.
+ */
+@Component
+public class TokenService {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Duration maxAge;
+    private final Clock clock;
+    private final Map<Long, Instant> revokedBefore = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenService(@Value("${security.token.secret:}") String secret,
+                        @Value("${security.token.ttl:15m}") Duration ttl,
+                        @Value("${security.token.max-age:24h}") Duration maxAge) {
+        this(secret, ttl, maxAge, Clock.systemUTC());
+    }
+
+    public TokenService(String secret, Duration ttl, Duration maxAge, Clock clock) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < 32) {
+                throw new IllegalArgumentException("Token secret must be at least 32 bytes long");
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        this.ttl = ttl;
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    public Token issue(User user) throws IllegalArgumentException {
+        if (user == null || user.getId() == null || user.getUsername() == null || user.getRole() == null) {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+        Instant now = clock.instant();
+        return sign(new TokenClaims(user.getId(), user.getUsername(), user.getRole(), now, now, now.plus(ttl)));
+    }
+
+    public Token refresh(String token) throws BadCredentialsException {
+        TokenClaims claims = verify(token);
+        Instant now = clock.instant();
+        if (!now.isBefore(claims.authenticatedAt().plus(maxAge))) {
+            throw new CredentialsExpiredException("Token can no longer be refreshed");
+        }
+        return sign(new TokenClaims(claims.userId(), claims.username(), claims.role(),
+                claims.authenticatedAt(), now, now.plus(ttl)));
+    }
+
+    public TokenClaims verify(String token) throws BadCredentialsException {
+        if (token == null) {
+            throw new BadCredentialsException("Token cannot be null");
+        }
+        int separator = token.indexOf('.');
+        if (separator < 0) {
+            throw new BadCredentialsException("Malformed token");
+        }
+
+        TokenClaims claims;
+        try {
+            byte[] payload = DECODER.decode(token.substring(0, separator));
+            byte[] signature = DECODER.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, mac(payload))) {
+                throw new BadCredentialsException("Invalid token signature");
+            }
+            claims = TokenClaims.parse(new String(payload, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadCredentialsException("Malformed token");
+        }
+
+        if (!clock.instant().isBefore(claims.expiresAt())) {
+            throw new CredentialsExpiredException("Token has expired");
+        }
+        Instant revoked = revokedBefore.get(claims.userId());
+        if (revoked != null && !claims.issuedAt().isAfter(revoked)) {
+            throw new BadCredentialsException("Token has been revoked");
+        }
+        return claims;
+    }
+
+    public void revoke(Long userId) {
+        Instant now = clock.instant();
+        revokedBefore.put(userId, now);
+        revokedBefore.values().removeIf(revoked -> revoked.plus(maxAge).plus(ttl).isBefore(now));
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.isCreated()) {
+            return;
+        }
+        User previous = event.previous();
+        User current = event.current();
+        if (event.isDeleted()
+                || !Objects.equals(previous.getUsername(), current.getUsername())
+                || !Objects.equals(previous.getPassword(), current.getPassword())
+                || previous.getRole() != current.getRole()) {
+            revoke(previous.getId());
+        }
+    }
+
+    private Token sign(TokenClaims claims) {
+        byte[] payload = claims.format().getBytes(StandardCharsets.UTF_8);
+        String token = ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(mac(payload));
+        return new Token(token, claims.expiresAt());
+    }
+
+    private byte[] mac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Token(String value, Instant expiresAt) {
+    }
+
+    public record TokenClaims(Long userId,
+                              String username,
+                              Role role,
+                              Instant authenticatedAt,
+                              Instant issuedAt,
+                              Instant expiresAt) {
+        private String format() {
+            return userId + ":" + authenticatedAt.toEpochMilli() + ":" + issuedAt.toEpochMilli() + ":"
+                    + expiresAt.toEpochMilli() + ":" + role.name() + ":" + username;
+        }
+
+        private static TokenClaims parse(String payload) {
+            String[] parts = payload.split(":", 6);
+            if (parts.length != 6) {
+                throw new IllegalArgumentException("Malformed token payload");
+            }
+            return new TokenClaims(
+                    Long.parseLong(parts[0]),
+                    parts[5],
+                    Role.valueOf(parts[4]),
+                    Instant.ofEpochMilli(Long.parseLong(parts[1])),
+                    Instant.ofEpochMilli(Long.parseLong(parts[2])),
+                    Instant.ofEpochMilli(Long.parseLong(parts[3]))
+            );
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package x0j3m.virtualwardrobe.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of a small reference table, kept as an immutable snapshot of id and name
+ * maps that is replaced atomically on every write. Reads never lock. Until {@link #load}
+ * has installed the whole table, a miss falls through to the given loader; afterwards the
+ * snapshot is authoritative and a miss means the row does not exist.
+ * <p>
+ * Rows written by another instance or directly in the database are only seen on a reload, so
+ * a loaded table is authoritative for {@code maxStaleness} only. After that, the first read
+ * loads the table again, and until a reload succeeds misses fall through to the loader as
+ * before the first load. Names are looked up ignoring case, like the case-insensitive
+ * collation of the name columns.
+ */
+public class Catalog<T> {
+    private static final int LOAD_ATTEMPTS = 3;
+
+    private final Function<T, Long> idOf;
+    private final Function<T, String> nameOf;
+    private final long maxStalenessNanos;
+    private final LongSupplier clock;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final AtomicReference<Snapshot<T>> snapshot =
+            new AtomicReference<>(new Snapshot<>(Map.of(), Map.of(), false, 0, 0));
+    private volatile Supplier<Iterable<T>> reloader;
+
+    public Catalog(Function<T, Long> idOf, Function<T, String> nameOf, Duration maxStaleness) {
+        this(idOf, nameOf, maxStaleness, System::nanoTime);
+    }
+
+    Catalog(Function<T, Long> idOf, Function<T, String> nameOf, Duration maxStaleness, LongSupplier clock) {
+        this.idOf = idOf;
+        this.nameOf = nameOf;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.clock = clock;
+    }
+
+    public T getById(Long id, Function<Long, Optional<T>> loader) {
+        Snapshot<T> current = current();
+        T item = current.byId().get(id);
+        if (item != null || authoritative(current)) {
+            return item;
+        }
+        return install(current, loader.apply(id).orElse(null));
+    }
+
+    /**
+     * Returns the cached row without going to the database, or null if it is not cached.
+     */
+    public T getById(Long id) {
+        return current().byId().get(id);
+    }
+
+    /**
+     * Returns the rows with the given ids that exist, reading the ones that are not cached with a
+     * single call to the loader.
+     */
+    public Map<Long, T> getAllById(Collection<Long> ids, Function<List<Long>, Iterable<T>> loader) {
+        Snapshot<T> current = current();
+        Map<Long, T> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            T item = current.byId().get(id);
+            if (item != null) {
+                found.put(id, item);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty() || authoritative(current)) {
+            return found;
+        }
+        Snapshot<T> updated = current;
+        for (T item : loader.apply(missing)) {
+            found.put(idOf.apply(item), item);
+            updated = with(updated, item);
+        }
+        snapshot.compareAndSet(current, updated);
+        return found;
+    }
+
+    public boolean isComplete() {
+        return authoritative(current());
+    }
+
+    public T getByName(String name, Function<String, Optional<T>> loader) {
+        Snapshot<T> current = current();
+        T item = current.byName().get(key(name));
+        if (item != null || authoritative(current)) {
+            return item;
+        }
+        return install(current, loader.apply(name).orElse(null));
+    }
+
+    /**
+     * Installs the whole table as returned by {@code loader}. The snapshot counts its writes, and
+     * the table is only installed if no {@link #put} or {@link #remove} happened while it was being
+     * read, since the rows read may not include that write; otherwise it is read again. If writes
+     * keep interfering the catalog stays incomplete, which is slower but still correct. The
+     * loader is kept to reload the table once it is older than {@code maxStaleness}.
+     */
+    public boolean load(Supplier<Iterable<T>> loader) {
+        reloader = loader;
+        for (int attempt = 0; attempt < LOAD_ATTEMPTS; attempt++) {
+            long writes = snapshot.get().writes();
+            long loadedAt = clock.getAsLong();
+            Map<Long, T> byId = new HashMap<>();
+            Map<String, T> byName = new HashMap<>();
+            for (T item : loader.get()) {
+                byId.put(idOf.apply(item), item);
+                byName.put(key(nameOf.apply(item)), item);
+            }
+            Snapshot<T> loaded = new Snapshot<>(Map.copyOf(byId), Map.copyOf(byName), true, writes, loadedAt);
+            Snapshot<T> current;
+            do {
+                current = snapshot.get();
+                if (current.writes() != writes) {
+                    break;
+                }
+            } while (!snapshot.compareAndSet(current, loaded));
+            if (snapshot.get() == loaded) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(T item) {
+        snapshot.updateAndGet(current -> written(with(current, item)));
+    }
+
+    public void remove(Long id) {
+        snapshot.updateAndGet(current -> {
+            T previous = current.byId().get(id);
+            if (previous == null) {
+                return written(current);
+            }
+            Map<Long, T> byId = new HashMap<>(current.byId());
+            Map<String, T> byName = new HashMap<>(current.byName());
+            byId.remove(id);
+            byName.remove(key(nameOf.apply(previous)));
+            return new Snapshot<>(Map.copyOf(byId), Map.copyOf(byName), current.complete(), current.writes() + 1,
+                    current.loadedAt());
+        });
+    }
+
+    public int size() {
+        return current().byId().size();
+    }
+
+    /**
+     * The snapshot to read, after reloading the table if it has become too old to be trusted.
+     * Only one thread reloads; the others read the old snapshot meanwhile, treating a miss as
+     * unknown rather than as missing.
+     */
+    private Snapshot<T> current() {
+        Snapshot<T> current = snapshot.get();
+        Supplier<Iterable<T>> loader = reloader;
+        if (current.complete() && !authoritative(current) && loader != null && reloading.compareAndSet(false, true)) {
+            try {
+                load(loader);
+            } finally {
+                reloading.set(false);
+            }
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    private boolean authoritative(Snapshot<T> current) {
+        return current.complete() && clock.getAsLong() - current.loadedAt() < maxStalenessNanos;
+    }
+
+    /**
+     * Adds a row read from the database, unless a write replaced the snapshot while it was
+     * being read; the row may be stale then, and the next read simply loads it again.
+     */
+    private T install(Snapshot<T> expected, T item) {
+        if (item != null) {
+            snapshot.compareAndSet(expected, with(expected, item));
+        }
+        return item;
+    }
+
+    private Snapshot<T> with(Snapshot<T> current, T item) {
+        Long id = idOf.apply(item);
+        if (id == null) {
+            return current;
+        }
+        Map<Long, T> byId = new HashMap<>(current.byId());
+        Map<String, T> byName = new HashMap<>(current.byName());
+        T previous = byId.put(id, item);
+        if (previous != null) {
+            byName.remove(key(nameOf.apply(previous)));
+        }
+        byName.put(key(nameOf.apply(item)), item);
+        return new Snapshot<>(Map.copyOf(byId), Map.copyOf(byName), current.complete(), current.writes(),
+                current.loadedAt());
+    }
+
+    private Snapshot<T> written(Snapshot<T> current) {
+        return new Snapshot<>(current.byId(), current.byName(), current.complete(), current.writes() + 1,
+                current.loadedAt());
+    }
+
+    private static String key(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    private record Snapshot<T>(Map<Long, T> byId, Map<String, T> byName, boolean complete, long writes,
+                               long loadedAt) {
+    }
+}
@@ -0,0 +1,44 @@
+package x0j3m.virtualwardrobe.service;
+
+import org.springframework.stereotype.Service;
+import x0j3m.virtualwardrobe.model.Clothes;
+import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.Color;
+
+/**
+ * Turns the color and type ids of a clothes write into the entities it references. Both are read
+ * from the in-memory catalogs, so once they are loaded this runs no queries; before that each id
+ * costs at most one lookup.
+ */
+@Service
+public class CatalogResolver {
+    private final ColorService colorService;
+    private final ClothesTypeService clothesTypeService;
+
+    public CatalogResolver(ColorService colorService, ClothesTypeService clothesTypeService) {
+        this.colorService = colorService;
+        this.clothesTypeService = clothesTypeService;
+    }
+
+    /**
+     * Returns clothes holding the referenced color and type, for merging into existing clothes.
+     * A null id stays null, meaning "keep the current value"; an id that does not exist is an error.
+     */
+    public Clothes resolve(Long colorId, Long typeId) throws IllegalArgumentException {
+        Color color = null;
+        if (colorId != null) {
+            color = colorService.getColor(colorId);
+            if (color == null) {
+                throw new IllegalArgumentException("Color with id " + colorId + " does not exist");
+            }
+        }
+        ClothesType type = null;
+        if (typeId != null) {
+            type = clothesTypeService.getClothesType(typeId);
+            if (type == null) {
+                throw new IllegalArgumentException("ClothesType with id " + typeId + " does not exist");
+            }
+        }
+        return new Clothes(color, type);
+    }
+}
@@ -0,0 +1,115 @@
+package x0j3m.virtualwardrobe.service;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import x0j3m.virtualwardrobe.data.ClothesRepository;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.Color;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number of clothes per color, type and layer, kept in memory. The counters are loaded with one
+ * GROUP BY query once all beans are created, before the web server accepts requests, and then
+ * adjusted by every committed clothes write, so reading them costs no query. No write can run
+ * while they are loaded, so none is missed or counted twice. Layer counts are summed from the type
+ * counts when read, which keeps them right when a type moves to another layer. Until the counters
+ * are loaded, reads run the query.
+ */
+@Service
+public class ClothesFacets implements SmartInitializingSingleton {
+    private final ClothesRepository clothesRepository;
+    private final ColorService colorService;
+    private final ClothesTypeService clothesTypeService;
+
+    private volatile Counters counters;
+
+    public ClothesFacets(ClothesRepository clothesRepository,
+                         ColorService colorService,
+                         ClothesTypeService clothesTypeService) {
+        this.clothesRepository = clothesRepository;
+        this.colorService = colorService;
+        this.clothesTypeService = clothesTypeService;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        counters = load();
+    }
+
+    public void added(Long colorId, Long typeId) {
+        Counters current = counters;
+        if (current != null) {
+            current.add(colorId, typeId, 1);
+        }
+    }
+
+    public void removed(Long colorId, Long typeId) {
+        Counters current = counters;
+        if (current != null) {
+            current.add(colorId, typeId, -1);
+        }
+    }
+
+    public Facets getFacets() {
+        Counters current = counters;
+        if (current == null) {
+            current = load();
+        }
+        List<Facet> colors = new ArrayList<>();
+        current.byColor.forEach((id, count) -> {
+            Color color = colorService.getColor(id);
+            if (color != null && count.sum() > 0) {
+                colors.add(new Facet(id, color.getName(), count.sum()));
+            }
+        });
+        List<Facet> types = new ArrayList<>();
+        Map<ClothesLayer, Long> layers = new EnumMap<>(ClothesLayer.class);
+        current.byType.forEach((id, count) -> {
+            ClothesType type = clothesTypeService.getClothesType(id);
+            long sum = count.sum();
+            if (type != null && sum > 0) {
+                types.add(new Facet(id, type.getName(), sum));
+                layers.merge(type.getLayer(), sum, Long::sum);
+            }
+        });
+        colors.sort(Comparator.comparing(Facet::id));
+        types.sort(Comparator.comparing(Facet::id));
+        return new Facets(colors, types, layers);
+    }
+
+    private Counters load() {
+        Counters loaded = new Counters();
+        for (ClothesRepository.ColorAndTypeCount row : clothesRepository.countByColorAndType()) {
+            loaded.add(row.getColorId(), row.getTypeId(), row.getCount());
+        }
+        return loaded;
+    }
+
+    public record Facet(Long id, String name, long count) {
+    }
+
+    public record Facets(List<Facet> colors, List<Facet> types, Map<ClothesLayer, Long> layers) {
+    }
+
+    private static final class Counters {
+        private final Map<Long, LongAdder> byColor = new ConcurrentHashMap<>();
+        private final Map<Long, LongAdder> byType = new ConcurrentHashMap<>();
+
+        void add(Long colorId, Long typeId, long delta) {
+            if (colorId != null) {
+                byColor.computeIfAbsent(colorId, id -> new LongAdder()).add(delta);
+            }
+            if (typeId != null) {
+                byType.computeIfAbsent(typeId, id -> new LongAdder()).add(delta);
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package x0j3m.virtualwardrobe.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import x0j3m.virtualwardrobe.data.ClothesRepository;
+import x0j3m.virtualwardrobe.model.Clothes;
+import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.Color;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Loads clothes from an NDJSON or CSV document that names the color and type of each row. The
+ * document is read one line at a time and rows are inserted in transactions of
+ * {@code clothes.import.chunk-size}, so memory depends on the chunk size and not on the document:
+ * the next lines are only read once the previous chunk is committed. Lines longer than
+ * {@code clothes.import.max-line-length} characters are skipped without being held in memory. A
+ * line that cannot be parsed or names a color or type that does not exist is reported and
+ * skipped; the rest are imported.
+ * <p>
+ * NDJSON lines are objects like {@code {"color":"black","type":"t-shirt"}}. A CSV document starts
+ * with a header row that has {@code color} and {@code type} columns, in any order.
+ */
+@Service
+public class ClothesImporter {
+    private final ClothesService clothesService;
+    private final ColorService colorService;
+    private final ClothesTypeService clothesTypeService;
+    private final ClothesRepository clothesRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectReader lineReader;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final int maxLineLength;
+
+    public ClothesImporter(ClothesService clothesService,
+                           ColorService colorService,
+                           ClothesTypeService clothesTypeService,
+                           ClothesRepository clothesRepository,
+                           TransactionTemplate transactionTemplate,
+                           EntityManager entityManager,
+                           ObjectMapper objectMapper,
+                           @Value("${clothes.import.chunk-size:500}") int chunkSize,
+                           @Value("${clothes.import.max-reported-errors:100}") int maxReportedErrors,
+                           @Value("${clothes.import.max-line-length:4096}") int maxLineLength) {
+        this.clothesService = clothesService;
+        this.colorService = colorService;
+        this.clothesTypeService = clothesTypeService;
+        this.clothesRepository = clothesRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.lineReader = objectMapper.readerFor(ImportLine.class);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxLineLength = maxLineLength;
+    }
+
+    public ImportReport importClothes(Reader document, Format format) throws IllegalArgumentException, IOException {
+        if (document == null || format == null) {
+            throw new IllegalArgumentException("Document and format cannot be null");
+        }
+        long started = System.nanoTime();
+        Import current = new Import();
+        LineReader reader = new LineReader(document, maxLineLength);
+        int[] columns = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            current.lines++;
+            if (reader.truncated) {
+                if (format == Format.CSV && columns == null) {
+                    throw new IllegalArgumentException("CSV header is longer than " + maxLineLength + " characters");
+                }
+                current.fail(current.lines, "Line is longer than " + maxLineLength + " characters");
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = csvColumns(line);
+                continue;
+            }
+            ImportLine parsed;
+            try {
+                parsed = format == Format.CSV ? csvLine(line, columns) : lineReader.readValue(line);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                current.fail(current.lines, "Line is not a valid " + format.name() + " row");
+                continue;
+            }
+            addLine(current, parsed);
+            if (current.chunk.size() >= chunkSize) {
+                flush(current);
+            }
+        }
+        flush(current);
+
+        long elapsedNanos = System.nanoTime() - started;
+        double rowsPerSecond = elapsedNanos > 0 ? current.imported * 1_000_000_000.0 / elapsedNanos : 0;
+        return new ImportReport(current.lines, current.imported, current.failed, List.copyOf(current.errors),
+                elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    private void addLine(Import current, ImportLine line) {
+        if (line == null || line.color() == null || line.color().isEmpty()
+                || line.type() == null || line.type().isEmpty()) {
+            current.fail(current.lines, "Color and type are required");
+            return;
+        }
+        Color color = colorService.getColor(line.color());
+        if (color == null) {
+            current.fail(current.lines, "Color " + line.color() + " does not exist");
+            return;
+        }
+        ClothesType type = clothesTypeService.getClothesType(line.type());
+        if (type == null) {
+            current.fail(current.lines, "ClothesType " + line.type() + " does not exist");
+            return;
+        }
+        current.chunk.add(new Clothes(color, type));
+        current.chunkLines.add(current.lines);
+    }
+
+    /**
+     * Inserts the pending rows in one transaction. If that fails, the rows are inserted one per
+     * transaction, so only the lines that really fail are reported. The persistence context is
+     * cleared afterwards, since during a request it outlives the transaction and would otherwise
+     * keep every imported row.
+     */
+    private void flush(Import current) {
+        if (current.chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                clothesRepository.saveAll(current.chunk);
+                entityManager.flush();
+            });
+            current.imported += current.chunk.size();
+            clothesService.clothesSaved(current.chunk);
+        } catch (DataIntegrityViolationException e) {
+            entityManager.clear();
+            flushRows(current);
+        } finally {
+            entityManager.clear();
+            current.chunk.clear();
+            current.chunkLines.clear();
+        }
+    }
+
+    private void flushRows(Import current) {
+        List<Clothes> saved = new ArrayList<>();
+        for (int i = 0; i < current.chunk.size(); i++) {
+            Clothes clothes = new Clothes(current.chunk.get(i).getColor(), current.chunk.get(i).getType());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    clothesRepository.save(clothes);
+                    entityManager.flush();
+                });
+                saved.add(clothes);
+            } catch (DataIntegrityViolationException e) {
+                current.fail(current.chunkLines.get(i), "Color or type does not exist");
+            }
+        }
+        if (!saved.isEmpty()) {
+            current.imported += saved.size();
+            clothesService.clothesSaved(saved);
+        }
+    }
+
+    private static int[] csvColumns(String header) {
+        List<String> names = csvFields(header);
+        int color = names.indexOf("color");
+        int type = names.indexOf("type");
+        if (color < 0 || type < 0) {
+            throw new IllegalArgumentException("CSV header must have color and type columns");
+        }
+        return new int[]{color, type};
+    }
+
+    private static ImportLine csvLine(String line, int[] columns) {
+        List<String> fields = csvFields(line);
+        if (fields.size() <= Math.max(columns[0], columns[1])) {
+            throw new IllegalArgumentException("Missing columns");
+        }
+        return new ImportLine(fields.get(columns[0]), fields.get(columns[1]));
+    }
+
+    /**
+     * Splits one CSV record. Fields may be quoted, with {@code ""} for a quote inside a quoted
+     * field; unquoted fields are trimmed. Quoted fields spanning lines are not supported.
+     */
+    private static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(wasQuoted ? field.toString() : field.toString().trim());
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(wasQuoted ? field.toString() : field.toString().trim());
+        return fields;
+    }
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format of(String mediaType) throws IllegalArgumentException {
+            String type = mediaType == null ? "" : mediaType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("application/x-ndjson")) {
+                return NDJSON;
+            }
+            if (type.startsWith("text/csv")) {
+                return CSV;
+            }
+            throw new IllegalArgumentException("Unsupported import format " + mediaType);
+        }
+    }
+
+    public record LineError(long line, String message) {
+    }
+
+    /**
+     * Outcome of an import. {@code errors} holds at most {@code clothes.import.max-reported-errors}
+     * entries; {@code failed} counts all rejected lines.
+     */
+    public record ImportReport(long lines, long imported, long failed, List<LineError> errors,
+                               long elapsedMillis, double rowsPerSecond) {
+    }
+
+    record ImportLine(String color, String type) {
+    }
+
+    /**
+     * Reads lines ending in {@code \n}, {@code \r\n} or {@code \r}, keeping at most
+     * {@code maxLength} characters of each; the rest of a longer line is read and dropped, and
+     * {@link #truncated} is set.
+     */
+    private static final class LineReader {
+        private final Reader reader;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean skipLineFeed;
+        private boolean truncated;
+
+        LineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        String readLine() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = reader.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return read ? line.toString() : null;
+                    }
+                }
+                char c = buffer[position++];
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (c == '\n') {
+                        continue;
+                    }
+                }
+                read = true;
+                if (c == '\n' || c == '\r') {
+                    skipLineFeed = c == '\r';
+                    return line.toString();
+                }
+                if (line.length() < maxLength) {
+                    line.append(c);
+                } else {
+                    truncated = true;
+                }
+            }
+        }
+    }
+
+    private class Import {
+        private final List<Clothes> chunk = new ArrayList<>(chunkSize);
+        private final List<Long> chunkLines = new ArrayList<>(chunkSize);
+        private final List<LineError> errors = new ArrayList<>();
+        private long lines;
+        private long imported;
+        private long failed;
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new LineError(line, message));
+            }
+        }
+    }
+}
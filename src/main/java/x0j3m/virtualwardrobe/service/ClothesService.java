@@ -1,25 +1,71 @@
 package x0j3m.virtualwardrobe.service;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import x0j3m.virtualwardrobe.data.ClothesRepository;
+import x0j3m.virtualwardrobe.data.ClothesSearch;
+import x0j3m.virtualwardrobe.data.TableStatistics;
 import x0j3m.virtualwardrobe.model.Clothes;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.ClothesView;
+import x0j3m.virtualwardrobe.model.Color;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ClothesService {
     private final ClothesRepository clothesRepository;
     private final ColorService colorService;
     private final ClothesTypeService clothesTypeService;
+    private final TransactionTemplate transactionTemplate;
+    private final TableStatistics tableStatistics;
+    private final ClothesFacets clothesFacets;
+    private final int batchMaxSize;
+    private final int batchChunkSize;
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
 
     public ClothesService(ClothesRepository clothesRepository,
                           ColorService colorService,
-                          ClothesTypeService clothesTypeService) {
+                          ClothesTypeService clothesTypeService,
+                          TransactionTemplate transactionTemplate,
+                          TableStatistics tableStatistics,
+                          ClothesFacets clothesFacets,
+                          @Value("${clothes.batch.max-size:1000}") int batchMaxSize,
+                          @Value("${clothes.batch.chunk-size:50}") int batchChunkSize) {
         this.clothesRepository = clothesRepository;
         this.colorService = colorService;
         this.clothesTypeService = clothesTypeService;
+        this.transactionTemplate = transactionTemplate;
+        this.tableStatistics = tableStatistics;
+        this.clothesFacets = clothesFacets;
+        this.batchMaxSize = batchMaxSize;
+        this.batchChunkSize = batchChunkSize;
     }
 
+    /**
+     * Inserts the clothes with a single statement: the color and type are passed as references,
+     * and a missing one is reported by the foreign key constraints instead of a lookup.
+     */
+    @Transactional
     public Long saveClothes(Long colorId, Long typeId) throws IllegalArgumentException {
         if (colorId == null || typeId == null) {
             throw new IllegalArgumentException("Id cannot be null");
@@ -27,29 +73,145 @@ public class ClothesService {
         if (colorId < 1 || typeId < 1) {
             throw new IllegalArgumentException("Id must be greater than 0");
         }
-        if (colorService.getColor(colorId) == null || clothesTypeService.getClothesType(typeId) == null) {
+        Color color = colorService.getColorReference(colorId);
+        ClothesType type = clothesTypeService.getClothesTypeReference(typeId);
+        if (color == null || type == null) {
             throw new IllegalArgumentException("Color or type does not exist");
         }
         try {
-            Clothes clothes = new Clothes(colorService.getColor(colorId), clothesTypeService.getClothesType(typeId));
-            return clothesRepository.save(clothes).getId();
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException(e.getMessage());
+            Clothes clothes = new Clothes(color, type);
+            Long savedId = clothesRepository.saveAndFlush(clothes).getId();
+            afterCommit(() -> {
+                version.incrementAndGet();
+                clothesFacets.added(colorId, typeId);
+            });
+            return savedId;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Color or type does not exist", e);
         }
     }
 
-    public Clothes getClothes(Long id) throws IllegalArgumentException {
+    /**
+     * Inserts all clothes and returns their ids in the same order. Color and type ids are checked
+     * up front with at most one query per table, then the rows are inserted in one transaction,
+     * flushed as JDBC batches every {@code clothes.batch.chunk-size} rows. If any row fails the
+     * whole batch is rolled back, so a client can retry it without duplicating rows.
+     */
+    public List<Long> saveAllClothes(List<ClothesIds> items) throws IllegalArgumentException {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Clothes cannot be null or empty");
+        }
+        if (items.size() > batchMaxSize) {
+            throw new IllegalArgumentException("Cannot save more than " + batchMaxSize + " clothes at once");
+        }
+        Set<Long> colorIds = new HashSet<>();
+        Set<Long> typeIds = new HashSet<>();
+        for (ClothesIds item : items) {
+            if (item == null || item.colorId() == null || item.typeId() == null) {
+                throw new IllegalArgumentException("Id cannot be null");
+            }
+            if (item.colorId() < 1 || item.typeId() < 1) {
+                throw new IllegalArgumentException("Id must be greater than 0");
+            }
+            colorIds.add(item.colorId());
+            typeIds.add(item.typeId());
+        }
+        Map<Long, Color> colors = colorService.getColors(colorIds);
+        Map<Long, ClothesType> types = clothesTypeService.getClothesTypes(typeIds);
+        if (colors.size() != colorIds.size() || types.size() != typeIds.size()) {
+            throw new IllegalArgumentException("Color or type does not exist");
+        }
+
+        List<Clothes> saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                List<Clothes> inserted = new ArrayList<>(items.size());
+                for (int from = 0; from < items.size(); from += batchChunkSize) {
+                    List<Clothes> chunk = items.subList(from, Math.min(from + batchChunkSize, items.size())).stream()
+                            .map(item -> new Clothes(colors.get(item.colorId()), types.get(item.typeId())))
+                            .toList();
+                    clothesRepository.saveAll(chunk).forEach(inserted::add);
+                    clothesRepository.flush();
+                }
+                return inserted;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Color or type does not exist; no clothes were saved", e);
+        }
+        clothesSaved(saved);
+        return saved.stream().map(Clothes::getId).toList();
+    }
+
+    public ClothesView getClothes(Long id) throws IllegalArgumentException {
         if (id == null) {
             throw new IllegalArgumentException("Id cannot be null");
         }
         if (id < 1) {
             throw new IllegalArgumentException("Id must be greater than 0");
         }
-        return clothesRepository.findById(id).orElse(null);
+        return clothesRepository.findViewById(id).orElse(null);
+    }
+
+    public Iterable<ClothesView> getAllClothes(int page, int size, Sort sort) {
+        return clothesRepository.findViewsBy(PageRequest.of(page, size, sort)).getContent();
+    }
+
+    /**
+     * Returns a page of clothes matching every given criterion; null or empty criteria are ignored.
+     * Color and type names are resolved through the catalogs, so the query filters on the foreign
+     * key columns. A name that does not exist matches nothing.
+     */
+    public Iterable<ClothesView> searchClothes(String colorName, String typeName, ClothesLayer layer,
+                                               int page, int size, Sort sort) throws IllegalArgumentException {
+        Long colorId = null;
+        if (colorName != null && !colorName.isEmpty()) {
+            Color color = colorService.getColor(colorName);
+            if (color == null) {
+                return List.of();
+            }
+            colorId = color.getId();
+        }
+        Long typeId = null;
+        if (typeName != null && !typeName.isEmpty()) {
+            ClothesType type = clothesTypeService.getClothesType(typeName);
+            if (type == null) {
+                return List.of();
+            }
+            typeId = type.getId();
+        }
+        return clothesRepository.search(new ClothesSearch.Filter(colorId, typeId, layer), PageRequest.of(page, size, sort))
+                .getContent();
+    }
+
+    public TableStatistics.Total countClothes() {
+        return tableStatistics.total("clothes", clothesRepository::count);
+    }
+
+    public Window<ClothesView> getAllClothes(ScrollPosition position, int size, Sort sort) throws IllegalArgumentException {
+        if (position == null) {
+            throw new IllegalArgumentException("Position cannot be null");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be greater than 0");
+        }
+        return clothesRepository.findAllBy(position, sort, Limit.of(size)).map(ClothesView::of);
     }
 
-    public Iterable<Clothes> getAllClothes(int page, int size, Sort sort) {
-        return clothesRepository.findAll(PageRequest.of(page, size, sort));
+    /**
+     * Passes every clothes to the consumer in id order, streaming from the database in one
+     * transaction, and returns how many were passed.
+     */
+    public long exportClothes(Consumer<ClothesView> consumer) {
+        Long exported = transactionTemplate.execute(status -> {
+            long count = 0;
+            try (Stream<ClothesView> clothes = clothesRepository.streamViewsBy()) {
+                for (Iterator<ClothesView> iterator = clothes.iterator(); iterator.hasNext(); count++) {
+                    consumer.accept(iterator.next());
+                }
+            }
+            return count;
+        });
+        return exported == null ? 0 : exported;
     }
 
     public Iterable<Clothes> getClothesByColor(String colorName) {
@@ -66,6 +228,11 @@ public class ClothesService {
         return clothesRepository.findByType_Name(typeName);
     }
 
+    /**
+     * Locks the row to read its color and type, then deletes it. The counters are adjusted only
+     * if this transaction deleted the row, and only once it commits.
+     */
+    @Transactional
     public void deleteClothes(Long id) throws IllegalArgumentException {
         if (id == null) {
             throw new IllegalArgumentException("Id cannot be null");
@@ -73,13 +240,25 @@ public class ClothesService {
         if (id < 1) {
             throw new IllegalArgumentException("Id must be greater than 0");
         }
-        if (clothesRepository.findById(id).isPresent()) {
-            clothesRepository.deleteById(id);
-        } else {
+        Clothes clothes = clothesRepository.findForUpdateById(id).orElseThrow(
+                () -> new IllegalArgumentException("Clothes with id " + id + " does not exist")
+        );
+        Long colorId = idOf(clothes.getColor());
+        Long typeId = idOf(clothes.getType());
+        if (clothesRepository.deleteClothesById(id) != 1) {
             throw new IllegalArgumentException("Clothes with id " + id + " does not exist");
         }
+        afterCommit(() -> {
+            version.incrementAndGet();
+            clothesFacets.removed(colorId, typeId);
+        });
     }
 
+    /**
+     * Locks the row for the rest of the transaction, so the color and type the counters are moved
+     * away from are the ones being replaced. The counters are adjusted once the transaction commits.
+     */
+    @Transactional
     public Clothes updateClothes(Long id, Clothes update) throws IllegalArgumentException {
         if (id == null) {
             throw new IllegalArgumentException("Id cannot be null");
@@ -90,10 +269,66 @@ public class ClothesService {
         if (update == null) {
             throw new IllegalArgumentException("Clothes cannot be null");
         }
-        Clothes clothes = clothesRepository.findById(id).orElseThrow(
+        Clothes clothes = clothesRepository.findForUpdateById(id).orElseThrow(
                 () -> new IllegalArgumentException("Clothes with id " + id + " does not exist")
         );
-        Clothes updatedClothes = Clothes.merge(clothes, update);
-        return clothesRepository.save(updatedClothes);
+        Long oldColorId = idOf(clothes.getColor());
+        Long oldTypeId = idOf(clothes.getType());
+        Clothes updatedClothes = clothesRepository.save(Clothes.merge(clothes, update));
+        Long newColorId = idOf(updatedClothes.getColor());
+        Long newTypeId = idOf(updatedClothes.getType());
+        afterCommit(() -> {
+            version.incrementAndGet();
+            clothesFacets.removed(oldColorId, oldTypeId);
+            clothesFacets.added(newColorId, newTypeId);
+        });
+        return updatedClothes;
+    }
+
+    /**
+     * Version stamp of everything a clothes response contains: the clothes table and the colors
+     * and types embedded in it. The sum of the three increasing stamps increases whenever any of
+     * them does.
+     */
+    public long getVersion() {
+        return version.get() + colorService.getVersion() + clothesTypeService.getVersion();
+    }
+
+    /**
+     * Records clothes inserted outside this service.
+     */
+    void clothesSaved(List<Clothes> saved) {
+        afterCommit(() -> {
+            version.incrementAndGet();
+            saved.forEach(clothes -> clothesFacets.added(idOf(clothes.getColor()), idOf(clothes.getType())));
+        });
+    }
+
+    /**
+     * Runs the action once the current transaction commits, so a rolled back write never reaches
+     * the version or the counters; outside a transaction it runs right away.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Long idOf(Color color) {
+        return color == null ? null : color.getId();
+    }
+
+    private static Long idOf(ClothesType type) {
+        return type == null ? null : type.getId();
+    }
+
+    public record ClothesIds(Long colorId, Long typeId) {
     }
 }
@@ -1,18 +1,39 @@
 package x0j3m.virtualwardrobe.service;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import x0j3m.virtualwardrobe.data.ClothesTypeRepository;
 import x0j3m.virtualwardrobe.model.ClothesLayer;
 import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.ClothesTypeView;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class ClothesTypeService {
     private final ClothesTypeRepository clothesTypeRepository;
+    private final Catalog<ClothesType> catalog;
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
 
-    public ClothesTypeService(ClothesTypeRepository clothesTypeRepository) {
+    public ClothesTypeService(ClothesTypeRepository clothesTypeRepository,
+                              @Value("${catalog.max-staleness:60s}") Duration maxStaleness) {
         this.clothesTypeRepository = clothesTypeRepository;
+        this.catalog = new Catalog<>(ClothesType::getId, ClothesType::getName, maxStaleness);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCatalog() {
+        catalog.load(clothesTypeRepository::findAll);
     }
 
     public Long saveClothesType(ClothesType clothesType) throws IllegalArgumentException {
@@ -25,11 +46,13 @@ public class ClothesTypeService {
         if (clothesType.getLayer() == null) {
             throw new IllegalArgumentException("ClothesType layer cannot be null");
         }
-        if (clothesTypeRepository.findByName(clothesType.getName()).isPresent()) {
+        if (catalog.getByName(clothesType.getName(), clothesTypeRepository::findByName) != null) {
             throw new IllegalArgumentException("ClothesType named " + clothesType.getName() + " already exists");
         }
 
         ClothesType savedClothesType = clothesTypeRepository.save(clothesType);
+        catalog.put(savedClothesType);
+        version.incrementAndGet();
         return savedClothesType.getId();
     }
 
@@ -44,18 +67,60 @@ public class ClothesTypeService {
         if (id < 1) {
             throw new IllegalArgumentException("ClothesType id must be greater than 0");
         }
-        return clothesTypeRepository.findById(id).orElse(null);
+        return catalog.getById(id, clothesTypeRepository::findById);
     }
 
     public ClothesType getClothesType(String clothesTypeName) throws IllegalArgumentException {
         if (clothesTypeName == null || clothesTypeName.isEmpty()) {
             throw new IllegalArgumentException("ClothesType name cannot be null or empty");
         }
-        return clothesTypeRepository.findByName(clothesTypeName).orElse(null);
+        return catalog.getByName(clothesTypeName, clothesTypeRepository::findByName);
     }
 
-    public Iterable<ClothesType> getAllClothesTypes(int page, int size, Sort sort) {
-        return clothesTypeRepository.findAll(PageRequest.of(page, size, sort));
+    /**
+     * Returns the clothes type for use as a reference from another entity without loading it; see
+     * {@link ColorService#getColorReference(Long)}.
+     */
+    public ClothesType getClothesTypeReference(Long id) throws IllegalArgumentException {
+        if (id == null) {
+            throw new IllegalArgumentException("ClothesType id cannot be null");
+        }
+        if (id < 1) {
+            throw new IllegalArgumentException("ClothesType id must be greater than 0");
+        }
+        ClothesType clothesType = catalog.getById(id);
+        if (clothesType != null || catalog.isComplete()) {
+            return clothesType;
+        }
+        return clothesTypeRepository.getReferenceById(id);
+    }
+
+    /**
+     * Returns the existing clothes types among the given ids, with at most one query for those not cached.
+     */
+    public Map<Long, ClothesType> getClothesTypes(Collection<Long> ids) {
+        return catalog.getAllById(ids, clothesTypeRepository::findAllById);
+    }
+
+    public Iterable<ClothesTypeView> getAllClothesTypes(int page, int size, Sort sort) {
+        return clothesTypeRepository.findViewsBy(PageRequest.of(page, size, sort)).getContent();
+    }
+
+    /**
+     * Number of clothes types, taken from the catalog once it is loaded.
+     */
+    public long countClothesTypes() {
+        return catalog.isComplete() ? catalog.size() : clothesTypeRepository.count();
+    }
+
+    public Window<ClothesTypeView> getAllClothesTypes(ScrollPosition position, int size, Sort sort) throws IllegalArgumentException {
+        if (position == null) {
+            throw new IllegalArgumentException("Position cannot be null");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be greater than 0");
+        }
+        return clothesTypeRepository.findAllBy(position, sort, Limit.of(size)).map(ClothesTypeView::of);
     }
 
     public void deleteClothesType(Long id) throws IllegalArgumentException {
@@ -65,8 +130,10 @@ public class ClothesTypeService {
         if (id < 1) {
             throw new IllegalArgumentException("ClothesType id must be greater than 0");
         }
-        if (clothesTypeRepository.findById(id).isPresent()) {
+        if (catalog.getById(id, clothesTypeRepository::findById) != null) {
             clothesTypeRepository.deleteById(id);
+            catalog.remove(id);
+            version.incrementAndGet();
         } else {
             throw new IllegalArgumentException("ClothesType with id " + id + " does not exist");
         }
@@ -84,14 +151,24 @@ public class ClothesTypeService {
         }
         if (update.getName() != null) {
             String updateName = update.getName();
-            if (clothesTypeRepository.findByName(updateName).isPresent()) {
+            if (catalog.getByName(updateName, clothesTypeRepository::findByName) != null) {
                 throw new IllegalArgumentException("ClothesType named " + updateName + " already exists");
             }
         }
-        ClothesType clothesType = clothesTypeRepository.findById(id).orElseThrow(
-                () -> new IllegalArgumentException("ClothesType with id " + id + " does not exist")
-        );
-        ClothesType updatedClothesType = ClothesType.merge(clothesType, update);
-        return clothesTypeRepository.save(updatedClothesType);
+        ClothesType clothesType = catalog.getById(id, clothesTypeRepository::findById);
+        if (clothesType == null) {
+            throw new IllegalArgumentException("ClothesType with id " + id + " does not exist");
+        }
+        ClothesType updatedClothesType = clothesTypeRepository.save(ClothesType.merge(clothesType, update));
+        catalog.put(updatedClothesType);
+        version.incrementAndGet();
+        return updatedClothesType;
+    }
+
+    /**
+     * Version stamp of the clothes types table, increased by every write made through this service.
+     */
+    public long getVersion() {
+        return version.get();
     }
 }
@@ -1,17 +1,38 @@
 package x0j3m.virtualwardrobe.service;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import x0j3m.virtualwardrobe.data.ColorRepository;
 import x0j3m.virtualwardrobe.model.Color;
+import x0j3m.virtualwardrobe.model.ColorView;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class ColorService {
     private final ColorRepository colorRepository;
+    private final Catalog<Color> catalog;
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
 
-    public ColorService(ColorRepository colorRepository) {
+    public ColorService(ColorRepository colorRepository,
+                        @Value("${catalog.max-staleness:60s}") Duration maxStaleness) {
         this.colorRepository = colorRepository;
+        this.catalog = new Catalog<>(Color::getId, Color::getName, maxStaleness);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCatalog() {
+        catalog.load(colorRepository::findAll);
     }
 
     public Long saveColor(Color color) throws IllegalArgumentException {
@@ -21,11 +42,13 @@ public class ColorService {
         if (color.getName() == null || color.getName().isEmpty()) {
             throw new IllegalArgumentException("Color name cannot be null or empty");
         }
-        if (colorRepository.findByName(color.getName()).isPresent()) {
+        if (catalog.getByName(color.getName(), colorRepository::findByName) != null) {
             throw new IllegalArgumentException("Color already exists");
         }
         try{
             Color savedColor = colorRepository.save(color);
+            catalog.put(savedColor);
+            version.incrementAndGet();
             return savedColor.getId();
         }catch (Exception e) {
             throw new IllegalArgumentException(e.getMessage());
@@ -43,18 +66,61 @@ public class ColorService {
         if (id < 1) {
             throw new IllegalArgumentException("Color id must be greater than 0");
         }
-        return colorRepository.findById(id).orElse(null);
+        return catalog.getById(id, colorRepository::findById);
     }
 
     public Color getColor(String colorName) throws IllegalArgumentException {
         if (colorName == null || colorName.isEmpty()) {
             throw new IllegalArgumentException("Color name cannot be null or empty");
         }
-        return colorRepository.findByName(colorName).orElse(null);
+        return catalog.getByName(colorName, colorRepository::findByName);
     }
 
-    public Iterable<Color> getAllColors(int page, int size, Sort sort) {
-        return colorRepository.findAll(PageRequest.of(page, size, sort)).getContent();
+    /**
+     * Returns the color for use as a reference from another entity without loading it. This is the
+     * cached color when it is known, null when the catalog knows the id does not exist, and an
+     * unloaded proxy otherwise, in which case the foreign key decides whether it exists.
+     */
+    public Color getColorReference(Long id) throws IllegalArgumentException {
+        if (id == null) {
+            throw new IllegalArgumentException("Color id cannot be null");
+        }
+        if (id < 1) {
+            throw new IllegalArgumentException("Color id must be greater than 0");
+        }
+        Color color = catalog.getById(id);
+        if (color != null || catalog.isComplete()) {
+            return color;
+        }
+        return colorRepository.getReferenceById(id);
+    }
+
+    /**
+     * Returns the existing colors among the given ids, with at most one query for those not cached.
+     */
+    public Map<Long, Color> getColors(Collection<Long> ids) {
+        return catalog.getAllById(ids, colorRepository::findAllById);
+    }
+
+    public Iterable<ColorView> getAllColors(int page, int size, Sort sort) {
+        return colorRepository.findViewsBy(PageRequest.of(page, size, sort)).getContent();
+    }
+
+    /**
+     * Number of colors, taken from the catalog once it is loaded.
+     */
+    public long countColors() {
+        return catalog.isComplete() ? catalog.size() : colorRepository.count();
+    }
+
+    public Window<ColorView> getAllColors(ScrollPosition position, int size, Sort sort) throws IllegalArgumentException {
+        if (position == null) {
+            throw new IllegalArgumentException("Position cannot be null");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be greater than 0");
+        }
+        return colorRepository.findAllBy(position, sort, Limit.of(size)).map(ColorView::of);
     }
 
     public void deleteColor(Long id) throws IllegalArgumentException {
@@ -64,8 +130,10 @@ public class ColorService {
         if (id < 1) {
             throw new IllegalArgumentException("Color id must be greater than 0");
         }
-        if (colorRepository.findById(id).isPresent()) {
+        if (catalog.getById(id, colorRepository::findById) != null) {
             colorRepository.deleteById(id);
+            catalog.remove(id);
+            version.incrementAndGet();
         } else {
             throw new IllegalArgumentException("Color with id " + id + " does not exist");
         }
@@ -82,10 +150,20 @@ public class ColorService {
             throw new IllegalArgumentException("Color cannot be null");
         }
 
-        Color color = colorRepository.findById(id).orElseThrow(
-                () -> new IllegalArgumentException("Color with id " + id + " does not exist")
-        );
-        Color updatedColor = Color.merge(color, update);
-        return colorRepository.save(updatedColor);
+        Color color = catalog.getById(id, colorRepository::findById);
+        if (color == null) {
+            throw new IllegalArgumentException("Color with id " + id + " does not exist");
+        }
+        Color updatedColor = colorRepository.save(Color.merge(color, update));
+        catalog.put(updatedColor);
+        version.incrementAndGet();
+        return updatedColor;
+    }
+
+    /**
+     * Version stamp of the colors table, increased by every write made through this service.
+     */
+    public long getVersion() {
+        return version.get();
     }
 }
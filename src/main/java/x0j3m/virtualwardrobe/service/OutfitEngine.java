@@ -0,0 +1,130 @@
+package x0j3m.virtualwardrobe.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesView;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Generates outfits of one item per required layer and at most one per optional layer, using at
+ * most {@code maxColors} distinct colors. The search runs over an in-memory {@link Wardrobe} that
+ * is rebuilt when the clothes version changes, on a fork-join pool of
+ * {@code outfits.parallelism} threads, or the common pool when that is 0. Each search visits at
+ * most {@code outfits.max-nodes} partial outfits, so no query can hold the pool for long.
+ */
+@Service
+public class OutfitEngine implements DisposableBean {
+    private final ClothesService clothesService;
+    private final ForkJoinPool pool;
+    private final boolean ownPool;
+    private final int maxLimit;
+    private final long maxNodes;
+    private final Lock rebuild = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    public OutfitEngine(ClothesService clothesService,
+                        @Value("${outfits.parallelism:0}") int parallelism,
+                        @Value("${outfits.max-limit:100}") int maxLimit,
+                        @Value("${outfits.max-nodes:2000000}") long maxNodes) {
+        this.clothesService = clothesService;
+        this.ownPool = parallelism > 0;
+        this.pool = ownPool ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+        this.maxLimit = maxLimit;
+        this.maxNodes = maxNodes;
+    }
+
+    public Result generate(Query query) throws IllegalArgumentException {
+        if (query == null || query.required() == null || query.required().isEmpty()) {
+            throw new IllegalArgumentException("At least one required layer must be given");
+        }
+        List<ClothesLayer> optional = query.optional() == null ? List.of() : query.optional();
+        Set<ClothesLayer> layers = EnumSet.noneOf(ClothesLayer.class);
+        for (ClothesLayer layer : concat(query.required(), optional)) {
+            if (layer == null || !layers.add(layer)) {
+                throw new IllegalArgumentException("Layers cannot be null or repeated");
+            }
+        }
+        if (query.maxColors() < 1) {
+            throw new IllegalArgumentException("Max colors must be at least 1");
+        }
+        if (query.limit() < 1 || query.limit() > maxLimit) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxLimit);
+        }
+        Query normalized = new Query(query.required(), optional,
+                query.colorIds() == null ? Set.of() : query.colorIds(), query.maxColors(), query.limit());
+        return wardrobe().outfits(normalized, pool, maxNodes);
+    }
+
+    /**
+     * The version is read before the clothes are, so a write that lands while loading leaves the
+     * snapshot marked as older and the next call loads again. Only one thread loads at a time;
+     * the others wait for it rather than use the older snapshot, because the caller may already
+     * have tagged its response with the newer version, and load only if the version moved again.
+     */
+    Wardrobe wardrobe() {
+        Snapshot current = snapshot;
+        if (current != null && current.version() == clothesService.getVersion()) {
+            return current.wardrobe();
+        }
+        rebuild.lock();
+        try {
+            long version = clothesService.getVersion();
+            current = snapshot;
+            if (current == null || current.version() != version) {
+                List<ClothesView> clothes = new ArrayList<>();
+                clothesService.exportClothes(clothes::add);
+                current = new Snapshot(version, Wardrobe.of(clothes));
+                snapshot = current;
+            }
+            return current.wardrobe();
+        } finally {
+            rebuild.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (ownPool) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static List<ClothesLayer> concat(List<ClothesLayer> first, List<ClothesLayer> second) {
+        List<ClothesLayer> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    /**
+     * What to generate. An empty {@code colorIds} allows every color.
+     */
+    public record Query(List<ClothesLayer> required, List<ClothesLayer> optional, Set<Long> colorIds,
+                        int maxColors, int limit) {
+    }
+
+    public record Item(long id, ClothesLayer layer, long colorId) {
+    }
+
+    public record Outfit(List<Item> items) {
+    }
+
+    /**
+     * The outfits found. {@code truncated} is set when the search ran out of its node budget, in
+     * which case the outfits are whatever was found by then and may differ from call to call.
+     */
+    public record Result(List<Outfit> outfits, boolean truncated) {
+    }
+
+    private record Snapshot(long version, Wardrobe wardrobe) {
+    }
+}
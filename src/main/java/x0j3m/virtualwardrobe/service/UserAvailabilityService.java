@@ -0,0 +1,153 @@
+package x0j3m.virtualwardrobe.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import x0j3m.virtualwardrobe.data.UserRepository;
+import x0j3m.virtualwardrobe.model.User;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Answers username and email availability checks from in-memory Bloom filters and only
+ * queries the database when a filter reports a possible match. Until the filters are
+ * built at startup every check goes to the database.
+ */
+@Service
+public class UserAvailabilityService {
+    private static final long MINIMUM_CAPACITY = 10_000;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double falsePositiveRate;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile Filters current;
+    private Filters building;
+
+    public UserAvailabilityService(UserRepository userRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${users.availability.false-positive-rate:0.01}") double falsePositiveRate,
+                                   MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.falsePositiveRate = falsePositiveRate;
+
+        for (String index : new String[]{"username", "email"}) {
+            Gauge.builder("users.availability.false.positive.rate", this, service -> service.report(index, false))
+                    .tag("index", index)
+                    .register(meterRegistry);
+            Gauge.builder("users.availability.memory", this, service -> service.report(index, true))
+                    .tag("index", index)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isUsernameAvailable(String username) throws IllegalArgumentException {
+        if (username == null || username.isEmpty()) {
+            throw new IllegalArgumentException("Username cannot be null or empty");
+        }
+        Filters filters = current;
+        if (filters != null && !filters.usernames().mightContain(normalize(username))) {
+            return true;
+        }
+        return userRepository.findByUsername(username).isEmpty();
+    }
+
+    public boolean isEmailAvailable(String email) throws IllegalArgumentException {
+        if (email == null || email.isEmpty()) {
+            throw new IllegalArgumentException("Email cannot be null or empty");
+        }
+        Filters filters = current;
+        if (filters != null && !filters.emails().mightContain(normalize(email))) {
+            return true;
+        }
+        return userRepository.findByEmail(email).isEmpty();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long capacity = Math.max(MINIMUM_CAPACITY, userRepository.count() * 2);
+            Filters filters = new Filters(
+                    new BloomFilter(capacity, falsePositiveRate),
+                    new BloomFilter(capacity, falsePositiveRate));
+            synchronized (this) {
+                building = filters;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<UserRepository.UsernameAndEmail> users = userRepository.streamAllBy()) {
+                    users.forEach(user -> filters.put(user.getUsername(), user.getEmail()));
+                }
+            });
+            synchronized (this) {
+                current = filters;
+            }
+        } finally {
+            synchronized (this) {
+                building = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.isDeleted()) {
+            return;
+        }
+        User user = event.current();
+        boolean saturated;
+        synchronized (this) {
+            if (current != null) {
+                current.put(user.getUsername(), user.getEmail());
+            }
+            if (building != null) {
+                building.put(user.getUsername(), user.getEmail());
+            }
+            saturated = current != null && current.isSaturated();
+        }
+        if (saturated && !rebuilding.get()) {
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    private double report(String index, boolean memory) {
+        Filters filters = current;
+        if (filters == null) {
+            return 0;
+        }
+        BloomFilter filter = "username".equals(index) ? filters.usernames() : filters.emails();
+        return memory ? filter.getMemoryBytes() : filter.expectedFalsePositiveRate();
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+        void put(String username, String email) {
+            if (username != null) {
+                usernames.put(normalize(username));
+            }
+            if (email != null) {
+                emails.put(normalize(email));
+            }
+        }
+
+        boolean isSaturated() {
+            return usernames.isSaturated() || emails.isSaturated();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package x0j3m.virtualwardrobe.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import x0j3m.virtualwardrobe.model.User;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Username to user cache shared by authentication and {@link UserService}. Entries are
+ * dropped when the user changes, and callers always get their own copy, so changing a
+ * returned user does not change the cached one.
+ */
+@Component
+public class UserCache {
+    private final Cache<String, User> cache;
+
+    public UserCache(@Value("${security.user-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${security.user-cache.ttl:10m}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public User get(String username, Function<String, User> loader) {
+        User user = cache.get(username, key -> {
+            User loaded = loader.apply(key);
+            return loaded == null ? null : copy(loaded);
+        });
+        return user == null ? null : copy(user);
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isCreated()) {
+            invalidate(event.previous().getUsername());
+        }
+    }
+
+    private static User copy(User user) {
+        return new User(user.getId(), user.getUsername(), user.getPassword(), user.getFirstName(),
+                user.getLastName(), user.getEmail(), user.getRole());
+    }
+}
@@ -0,0 +1,13 @@
+package x0j3m.virtualwardrobe.service;
+
+import x0j3m.virtualwardrobe.model.User;
+
+public record UserChangedEvent(User previous, User current) {
+    public boolean isCreated() {
+        return previous == null;
+    }
+
+    public boolean isDeleted() {
+        return current == null;
+    }
+}
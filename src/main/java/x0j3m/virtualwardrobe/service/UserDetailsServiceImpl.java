@@ -1,24 +1,28 @@
 package x0j3m.virtualwardrobe.service;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import x0j3m.virtualwardrobe.data.UserRepository;
 import x0j3m.virtualwardrobe.model.User;
 import x0j3m.virtualwardrobe.model.UserPrincipal;
 
 @Component
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, UserCache userCache) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username).orElse(null);
+        User user = userCache.get(username, key -> userRepository.findByUsername(key).orElse(null));
 
         if (user == null) {
             throw new UsernameNotFoundException("User not found");
@@ -26,4 +30,21 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return new UserPrincipal(user);
     }
+
+    /**
+     * Stores a rehashed password after a successful login. The plain password is unchanged,
+     * so this is not treated as a credential change and no {@link UserChangedEvent} is published.
+     * The hash is replaced only if it is still the one the login verified; a password changed in
+     * the meantime is kept, and the login goes on with the details it was given.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        String username = userDetails.getUsername();
+        if (userRepository.updatePassword(username, userDetails.getPassword(), newPassword) != 1) {
+            return userDetails;
+        }
+        userCache.invalidate(username);
+        return userRepository.findByUsername(username).<UserDetails>map(UserPrincipal::new).orElse(userDetails);
+    }
 }
@@ -1,13 +1,17 @@
 package x0j3m.virtualwardrobe.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import jakarta.validation.ValidatorFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import x0j3m.virtualwardrobe.data.UserRepository;
 import x0j3m.virtualwardrobe.model.User;
+import x0j3m.virtualwardrobe.security.PasswordHashingExecutor;
 
 import java.util.Set;
 
@@ -15,39 +19,72 @@ import java.util.Set;
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserCache userCache;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final MeterRegistry meterRegistry;
     private final ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
     private final Validator validator = factory.getValidator();
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository,
+                       PasswordEncoder passwordEncoder,
+                       ApplicationEventPublisher eventPublisher,
+                       UserCache userCache,
+                       PasswordHashingExecutor hashingExecutor,
+                       MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.userCache = userCache;
+        this.hashingExecutor = hashingExecutor;
+        this.meterRegistry = meterRegistry;
     }
 
     private void encodePassword(User user) {
         if (user.getPassword() == null) return;
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        String rawPassword = user.getPassword();
+        user.setPassword(hashingExecutor.execute(() -> passwordEncoder.encode(rawPassword)));
     }
 
+    private void validate(User user) throws IllegalArgumentException {
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream().findAny().get().getMessage());
+        }
+    }
+
+    private void checkAvailability(User user) throws IllegalArgumentException {
+        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
+            throw new IllegalArgumentException("User " + user.getUsername() + " is already taken");
+        }
+        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
+            throw new IllegalArgumentException("Email " + user.getEmail() + " is already taken");
+        }
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("users.registration.stage")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registration runs the cheapest checks first: validation of the raw input, then the
+     * uniqueness queries and only then the password hash, so rejected registrations never
+     * pay for BCrypt.
+     */
     public Long saveUser(User user) throws IllegalArgumentException {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null");
         }
 
-        encodePassword(user);
+        stageTimer("validate").record(() -> validate(user));
+        stageTimer("availability").record(() -> checkAvailability(user));
+        stageTimer("hash").record(() -> encodePassword(user));
+        User saved = stageTimer("persist").record(() -> userRepository.save(user));
 
-        Set<ConstraintViolation<User>> violations = validator.validate(user);
-        if (violations.isEmpty()) {
-            if (userRepository.findByUsername(user.getUsername()).isPresent()) {
-                throw new IllegalArgumentException("User " + user.getUsername() + " is already taken");
-            }
-            if (userRepository.findByEmail(user.getEmail()).isPresent()) {
-                throw new IllegalArgumentException("Email " + user.getEmail() + " is already taken");
-            }
-            User saved = userRepository.save(user);
-            return saved.getId();
-        } else {
-            throw new IllegalArgumentException(violations.stream().findAny().get().getMessage());
-        }
+        eventPublisher.publishEvent(new UserChangedEvent(null, saved));
+        return saved.getId();
     }
 
     public User getUser(Long id) throws IllegalArgumentException {
@@ -64,7 +101,7 @@ public class UserService {
         if (username == null || username.isEmpty()) {
             throw new IllegalArgumentException("Username cannot be null or empty");
         }
-        return userRepository.findByUsername(username).orElse(null);
+        return userCache.get(username, key -> userRepository.findByUsername(key).orElse(null));
     }
 
     public void deleteUser(Long id) throws IllegalArgumentException {
@@ -74,11 +111,11 @@ public class UserService {
         if (id < 1) {
             throw new IllegalArgumentException("User id must be greater than 0");
         }
-        if (userRepository.findById(id).isPresent()) {
-            userRepository.deleteById(id);
-        } else {
-            throw new IllegalArgumentException("User id " + id + " does not exist");
-        }
+        User user = userRepository.findById(id).orElseThrow(
+                () -> new IllegalArgumentException("User id " + id + " does not exist")
+        );
+        userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(user, null));
     }
 
     public User updateUser(Long id, User update) throws IllegalArgumentException {
@@ -92,19 +129,18 @@ public class UserService {
             throw new IllegalArgumentException("User cannot be null");
         }
 
-        encodePassword(update);
-
         User user = userRepository.findById(id).orElseThrow(
                 () -> new IllegalArgumentException("User id " + id + " does not exist")
         );
 
         User updatedUser = User.merge(user, update);
-        Set<ConstraintViolation<User>> violations = validator.validate(updatedUser);
-
-        if (violations.isEmpty()) {
-            return userRepository.save(updatedUser);
-        } else {
-            throw new IllegalArgumentException(violations.stream().findAny().get().getMessage());
+        validate(updatedUser);
+        if (update.getPassword() != null) {
+            encodePassword(updatedUser);
         }
+
+        User saved = userRepository.save(updatedUser);
+        eventPublisher.publishEvent(new UserChangedEvent(user, saved));
+        return saved;
     }
 }
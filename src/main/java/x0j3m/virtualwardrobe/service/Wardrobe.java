@@ -0,0 +1,336 @@
+package x0j3m.virtualwardrobe.service;
+
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesView;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable snapshot of all clothes laid out for outfit search. Each layer keeps its clothes ids
+ * and dense color indexes in primitive arrays, and one bitset per color marking the positions of
+ * that color, so the clothes that keep an outfit within its color budget are found by OR-ing a
+ * few bitsets instead of testing every item. Clothes without a color or type cannot be placed
+ * in an outfit and are left out.
+ */
+public final class Wardrobe {
+    private static final int SPLIT_THRESHOLD = 8;
+    private static final int NODE_BATCH = 1024;
+    private static final int LAYERS = ClothesLayer.values().length;
+
+    private final long[] colorIds;
+    private final long[][] ids = new long[LAYERS][];
+    private final int[][] colors = new int[LAYERS][];
+    private final BitSet[][] byColor = new BitSet[LAYERS][];
+
+    private Wardrobe(Iterable<ClothesView> clothes) {
+        Map<Long, Integer> colorIndexes = new HashMap<>();
+        List<List<ClothesView>> layers = new ArrayList<>(LAYERS);
+        for (int i = 0; i < LAYERS; i++) {
+            layers.add(new ArrayList<>());
+        }
+        for (ClothesView item : clothes) {
+            if (item.colorId() == null || item.layer() == null) {
+                continue;
+            }
+            colorIndexes.putIfAbsent(item.colorId(), colorIndexes.size());
+            layers.get(item.layer().ordinal()).add(item);
+        }
+        colorIds = new long[colorIndexes.size()];
+        colorIndexes.forEach((id, index) -> colorIds[index] = id);
+
+        for (int layer = 0; layer < LAYERS; layer++) {
+            List<ClothesView> items = layers.get(layer);
+            ids[layer] = new long[items.size()];
+            colors[layer] = new int[items.size()];
+            byColor[layer] = new BitSet[colorIds.length];
+            for (int position = 0; position < items.size(); position++) {
+                int color = colorIndexes.get(items.get(position).colorId());
+                ids[layer][position] = items.get(position).id();
+                colors[layer][position] = color;
+                if (byColor[layer][color] == null) {
+                    byColor[layer][color] = new BitSet(items.size());
+                }
+                byColor[layer][color].set(position);
+            }
+        }
+    }
+
+    public static Wardrobe of(Iterable<ClothesView> clothes) {
+        return new Wardrobe(clothes);
+    }
+
+    public int size(ClothesLayer layer) {
+        return ids[layer.ordinal()].length;
+    }
+
+    /**
+     * Returns the first {@code query.limit()} outfits in a fixed order: layers as listed, required
+     * before optional, clothes in the order they were loaded, and an optional layer left empty
+     * only after every item of it was tried. Clothes of the first layer are searched in waves that
+     * double in size, each split between fork-join tasks and merged in order, so the outcome does
+     * not depend on the number of threads and the search stops soon after the limit is reached.
+     * <p>
+     * A query with a required layer that has no clothes in the allowed colors returns nothing
+     * without searching, and a branch is cut as soon as a required layer below it has no clothes
+     * left within the color budget. The search gives up after visiting {@code maxNodes} partial
+     * outfits and returns what it found until then, marked as truncated, which may then skip some
+     * earlier outfits.
+     */
+    public OutfitEngine.Result outfits(OutfitEngine.Query query, ForkJoinPool pool, long maxNodes) {
+        Search search = new Search(query, maxNodes);
+        for (int d = 0; d < search.layers.length; d++) {
+            if (!search.optional[d] && search.allowed[d].isEmpty()) {
+                return new OutfitEngine.Result(List.of(), false);
+            }
+        }
+        int[] first = search.allowed[0].stream().toArray();
+        List<int[]> found = new ArrayList<>();
+        int wave = SPLIT_THRESHOLD * Math.max(1, pool.getParallelism());
+        for (int from = 0; from < first.length && found.size() < search.limit && !search.exhausted;
+             from += wave, wave *= 2) {
+            int to = (int) Math.min(first.length, (long) from + wave);
+            for (int[] positions : pool.invoke(new FirstLayerTask(search, first, from, to))) {
+                if (found.size() < search.limit) {
+                    found.add(positions);
+                }
+            }
+        }
+        List<OutfitEngine.Outfit> outfits = new ArrayList<>(found.size());
+        for (int[] positions : found) {
+            outfits.add(search.outfit(positions));
+        }
+        return new OutfitEngine.Result(outfits, search.exhausted);
+    }
+
+    private final class Search {
+        private final int[] layers;
+        private final boolean[] optional;
+        private final BitSet[] allowed;
+        private final BitSet[] allowedColors;
+        private final int maxColors;
+        private final int limit;
+        private final long maxNodes;
+        private final AtomicLong nodes = new AtomicLong();
+        private volatile boolean exhausted;
+
+        Search(OutfitEngine.Query query, long maxNodes) {
+            int depth = query.required().size() + query.optional().size();
+            layers = new int[depth];
+            optional = new boolean[depth];
+            allowed = new BitSet[depth];
+            allowedColors = new BitSet[depth];
+            int d = 0;
+            for (ClothesLayer layer : query.required()) {
+                layers[d++] = layer.ordinal();
+            }
+            for (ClothesLayer layer : query.optional()) {
+                optional[d] = true;
+                layers[d++] = layer.ordinal();
+            }
+            for (d = 0; d < depth; d++) {
+                allowedColors[d] = allowedColors(layers[d], query.colorIds());
+                allowed[d] = new BitSet(ids[layers[d]].length);
+                for (int color = allowedColors[d].nextSetBit(0); color >= 0; color = allowedColors[d].nextSetBit(color + 1)) {
+                    allowed[d].or(byColor[layers[d]][color]);
+                }
+            }
+            maxColors = query.maxColors();
+            limit = query.limit();
+            this.maxNodes = maxNodes;
+        }
+
+        /**
+         * Indexes of the colors the layer has clothes in, restricted to the filter unless it is empty.
+         */
+        private BitSet allowedColors(int layer, Set<Long> colorFilter) {
+            BitSet colorsOfLayer = new BitSet(colorIds.length);
+            for (int color = 0; color < colorIds.length; color++) {
+                if (byColor[layer][color] != null
+                        && (colorFilter == null || colorFilter.isEmpty() || colorFilter.contains(colorIds[color]))) {
+                    colorsOfLayer.set(color);
+                }
+            }
+            return colorsOfLayer;
+        }
+
+        /**
+         * Whether every required layer from {@code depth} on still has clothes in one of the colors
+         * already chosen. Only asked once the color budget is used up, when no other color may
+         * be added.
+         */
+        boolean feasible(int depth, int[] usedColors, int used) {
+            for (int d = depth; d < layers.length; d++) {
+                if (!optional[d] && !anyOf(allowedColors[d], usedColors, used)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Positions of the layer at {@code depth} that keep the outfit within the color budget.
+         * Once the budget is used up only clothes in the colors already chosen qualify.
+         */
+        BitSet candidates(int depth, int[] usedColors, int used, BitSet scratch) {
+            if (used < maxColors) {
+                return allowed[depth];
+            }
+            int layer = layers[depth];
+            scratch.clear();
+            for (int i = 0; i < used; i++) {
+                BitSet ofColor = byColor[layer][usedColors[i]];
+                if (ofColor != null) {
+                    scratch.or(ofColor);
+                }
+            }
+            scratch.and(allowed[depth]);
+            return scratch;
+        }
+
+        /**
+         * Depth-first search below the choices of the walk; returns true once its {@code found} is
+         * full or the node budget is spent.
+         */
+        boolean search(int depth, int used, Walk walk) {
+            if (!walk.visit()) {
+                return true;
+            }
+            int[] chosen = walk.chosen;
+            int[] usedColors = walk.usedColors;
+            if (depth == layers.length) {
+                walk.found.add(chosen.clone());
+                return walk.found.size() >= limit;
+            }
+            if (used >= maxColors && !feasible(depth, usedColors, used)) {
+                return false;
+            }
+            int layer = layers[depth];
+            BitSet candidates = candidates(depth, usedColors, used, walk.scratch[depth]);
+            for (int position = candidates.nextSetBit(0); position >= 0; position = candidates.nextSetBit(position + 1)) {
+                int color = colors[layer][position];
+                boolean newColor = !contains(usedColors, used, color);
+                if (newColor) {
+                    usedColors[used] = color;
+                }
+                chosen[depth] = position;
+                if (search(depth + 1, newColor ? used + 1 : used, walk)) {
+                    return true;
+                }
+            }
+            if (optional[depth]) {
+                chosen[depth] = -1;
+                return search(depth + 1, used, walk);
+            }
+            return false;
+        }
+
+        int colorOf(int depth, int position) {
+            return colors[layers[depth]][position];
+        }
+
+        OutfitEngine.Outfit outfit(int[] positions) {
+            List<OutfitEngine.Item> items = new ArrayList<>(positions.length);
+            for (int d = 0; d < positions.length; d++) {
+                if (positions[d] >= 0) {
+                    int layer = layers[d];
+                    items.add(new OutfitEngine.Item(ids[layer][positions[d]], ClothesLayer.values()[layer],
+                            colorIds[colors[layer][positions[d]]]));
+                }
+            }
+            return new OutfitEngine.Outfit(items);
+        }
+
+        private static boolean contains(int[] values, int length, int value) {
+            for (int i = 0; i < length; i++) {
+                if (values[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean anyOf(BitSet set, int[] values, int length) {
+            for (int i = 0; i < length; i++) {
+                if (set.get(values[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * State of one task's depth-first search: the choices so far, one reusable bitset per depth
+         * and the outfits found. Visited nodes are counted locally and added to the shared count in
+         * batches, so threads do not contend on it.
+         */
+        final class Walk {
+            private final int[] chosen = new int[layers.length];
+            private final int[] usedColors = new int[layers.length];
+            private final BitSet[] scratch = new BitSet[layers.length];
+            private final List<int[]> found = new ArrayList<>();
+            private int visited;
+
+            Walk() {
+                for (int d = 0; d < layers.length; d++) {
+                    scratch[d] = new BitSet();
+                }
+            }
+
+            boolean visit() {
+                if (++visited == NODE_BATCH) {
+                    visited = 0;
+                    if (nodes.addAndGet(NODE_BATCH) > maxNodes) {
+                        exhausted = true;
+                    }
+                }
+                return !exhausted;
+            }
+        }
+    }
+
+    private static final class FirstLayerTask extends RecursiveTask<List<int[]>> {
+        private final Search search;
+        private final int[] positions;
+        private final int from;
+        private final int to;
+
+        FirstLayerTask(Search search, int[] positions, int from, int to) {
+            this.search = search;
+            this.positions = positions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<int[]> compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                FirstLayerTask left = new FirstLayerTask(search, positions, from, middle);
+                left.fork();
+                List<int[]> right = new FirstLayerTask(search, positions, middle, to).compute();
+                List<int[]> found = new ArrayList<>(left.join());
+                for (int i = 0; i < right.size() && found.size() < search.limit; i++) {
+                    found.add(right.get(i));
+                }
+                return found;
+            }
+            Search.Walk walk = search.new Walk();
+            for (int i = from; i < to; i++) {
+                walk.chosen[0] = positions[i];
+                walk.usedColors[0] = search.colorOf(0, positions[i]);
+                if (search.search(1, 1, walk)) {
+                    break;
+                }
+            }
+            return walk.found;
+        }
+    }
+}
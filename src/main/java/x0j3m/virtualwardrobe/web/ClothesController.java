@@ -1,64 +1,164 @@
 package x0j3m.virtualwardrobe.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import x0j3m.virtualwardrobe.model.ClothesType;
-import x0j3m.virtualwardrobe.model.Color;
-import x0j3m.virtualwardrobe.service.ClothesTypeService;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import x0j3m.virtualwardrobe.service.CatalogResolver;
+import x0j3m.virtualwardrobe.service.ClothesFacets;
+import x0j3m.virtualwardrobe.service.ClothesImporter;
 import x0j3m.virtualwardrobe.web.dto.ClothesRequestDTO;
 import x0j3m.virtualwardrobe.model.Clothes;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesView;
 import x0j3m.virtualwardrobe.service.ClothesService;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @RestController
 @RequestMapping("/clothes")
 public class ClothesController {
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final ClothesService clothesService;
-    private final ClothesTypeController clothesTypeController;
-    private final ColorController colorController;
+    private final CatalogResolver catalogResolver;
+    private final ClothesImporter clothesImporter;
+    private final ClothesFacets clothesFacets;
+    private final ObjectWriter exportWriter;
 
     public ClothesController(ClothesService clothesService,
-                             ClothesTypeController clothesTypeController,
-                             ColorController colorController) {
+                             CatalogResolver catalogResolver,
+                             ClothesImporter clothesImporter,
+                             ClothesFacets clothesFacets,
+                             ObjectMapper objectMapper) {
         this.clothesService = clothesService;
-        this.clothesTypeController = clothesTypeController;
-        this.colorController = colorController;
+        this.catalogResolver = catalogResolver;
+        this.clothesImporter = clothesImporter;
+        this.clothesFacets = clothesFacets;
+        this.exportWriter = objectMapper.writerFor(ClothesView.class);
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Clothes> getClothes(@PathVariable Long id) {
+    public ResponseEntity<ClothesView> getClothes(@PathVariable Long id, WebRequest webRequest) {
+        String etag = "clothes-" + clothesService.getVersion();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+        }
         try {
-            Clothes clothes = clothesService.getClothes(id);
+            ClothesView clothes = clothesService.getClothes(id);
             if (clothes == null) {
                 return ResponseEntity.notFound().build();
             }
-            return ResponseEntity.ok(clothes);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_CONTROL).body(clothes);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @GetMapping
-    public ResponseEntity<Iterable<Clothes>> getAllClothes(Pageable pageable) {
+    public ResponseEntity<Iterable<ClothesView>> getAllClothes(Pageable pageable,
+                                                               @RequestParam(required = false) String after,
+                                                               @RequestParam(defaultValue = "false") boolean includeTotal,
+                                                               WebRequest webRequest) {
+        String etag = "clothes-" + clothesService.getVersion();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+        }
+        HttpHeaders headers = includeTotal ? TotalCount.headers(clothesService.countClothes()) : new HttpHeaders();
+        if (after != null) {
+            return KeysetCursor.page(after, pageable, Clothes.class, clothesService::getAllClothes, etag, headers, CACHE_CONTROL);
+        }
         try {
-            Iterable<Clothes> clothes = clothesService
+            Iterable<ClothesView> clothes = clothesService
                     .getAllClothes(
                             pageable.getPageNumber(),
                             pageable.getPageSize(),
                             pageable.getSort()
                     );
             if (clothes.iterator().hasNext()) {
-                return ResponseEntity.ok(clothes);
+                return ResponseEntity.ok().headers(headers).eTag(etag).cacheControl(CACHE_CONTROL).body(clothes);
             }
-            return ResponseEntity.noContent().build();
+            return ResponseEntity.noContent().headers(headers).eTag(etag).cacheControl(CACHE_CONTROL).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @GetMapping("/facets")
+    public ResponseEntity<ClothesFacets.Facets> getFacets(WebRequest webRequest) {
+        String etag = "clothes-" + clothesService.getVersion();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_CONTROL).body(clothesFacets.getFacets());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Iterable<ClothesView>> searchClothes(@RequestParam(required = false) String color,
+                                                               @RequestParam(required = false) String type,
+                                                               @RequestParam(required = false) ClothesLayer layer,
+                                                               Pageable pageable,
+                                                               WebRequest webRequest) {
+        String etag = "clothes-" + clothesService.getVersion();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+        }
+        Iterable<ClothesView> clothes;
+        try {
+            clothes = clothesService.searchClothes(
+                    color, type, layer,
+                    pageable.getPageNumber(),
+                    pageable.getPageSize(),
+                    pageable.getSort()
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (clothes.iterator().hasNext()) {
+            return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_CONTROL).body(clothes);
+        }
+        return ResponseEntity.noContent().eTag(etag).cacheControl(CACHE_CONTROL).build();
+    }
+
+    /**
+     * Writes all clothes as newline-delimited JSON while they are read from the database, so the
+     * export never holds more than one fetch of rows in memory.
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportClothes() {
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream, EXPORT_BUFFER_SIZE);
+            clothesService.exportClothes(clothes -> {
+                try {
+                    out.write(exportWriter.writeValueAsBytes(clothes));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     @PostMapping
     public ResponseEntity<Void> saveClothes(@RequestBody ClothesRequestDTO request) {
         try {
@@ -72,6 +172,39 @@ public class ClothesController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<Long>> saveClothesBatch(@RequestBody List<ClothesRequestDTO> requests) {
+        try {
+            List<ClothesService.ClothesIds> items = requests.stream()
+                    .map(request -> request == null
+                            ? null
+                            : new ClothesService.ClothesIds(request.colorId(), request.typeId()))
+                    .toList();
+            List<Long> savedIds = clothesService.saveAllClothes(items);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedIds);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Imports clothes from an NDJSON or CSV body naming each color and type. The body is read
+     * while the rows are inserted, and the report lists the lines that were skipped.
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON, "text/csv"})
+    public ResponseEntity<ClothesImporter.ImportReport> importClothes(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                      InputStream body) throws IOException {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+            ClothesImporter.ImportReport report = clothesImporter.importClothes(
+                    new InputStreamReader(body, charset), ClothesImporter.Format.of(contentType));
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("{id}")
     public ResponseEntity<Void> deleteClothes(@PathVariable Long id) {
         try {
@@ -85,49 +218,14 @@ public class ClothesController {
     @PatchMapping("{id}")
     public ResponseEntity<Void> updateClothes(@PathVariable Long id, @RequestBody ClothesRequestDTO update) {
         try {
-            if (clothesService.getClothes(id) != null) {
-                Clothes clothesUpdate = clothesDTOToClothes(update);
+            Clothes clothesUpdate = catalogResolver.resolve(update.colorId(), update.typeId());
 
-                clothesService.updateClothes(id, clothesUpdate);
+            clothesService.updateClothes(id, clothesUpdate);
 
-                URI location = URI.create("/clothes/" + id);
-                return ResponseEntity.created(location).build();
-            }
-            return ResponseEntity.notFound().build();
+            URI location = URI.create("/clothes/" + id);
+            return ResponseEntity.created(location).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
-
-    private Clothes clothesDTOToClothes(ClothesRequestDTO dto) {
-        Color color;
-        ClothesType clothesType;
-
-        Long colorId = dto.colorId();
-        Long typeId = dto.typeId();
-
-        if (colorId == null) {
-            color = null;
-        } else {
-            HttpStatus status = (HttpStatus) colorController.getColor(colorId).getStatusCode();
-            if (status != HttpStatus.OK) {
-                color = colorController.getColor(colorId).getBody();
-            } else {
-                color = null;
-            }
-        }
-
-        if (typeId == null) {
-            clothesType = null;
-        } else {
-            HttpStatus status = (HttpStatus) clothesTypeController.getClothesType(typeId).getStatusCode();
-            if (status != HttpStatus.OK) {
-                clothesType = clothesTypeController.getClothesType(typeId).getBody();
-            } else {
-                clothesType = null;
-            }
-        }
-
-        return new Clothes(color, clothesType);
-    }
 }
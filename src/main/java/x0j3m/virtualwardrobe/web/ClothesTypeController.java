@@ -1,9 +1,14 @@
 package x0j3m.virtualwardrobe.web;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.ClothesTypeView;
 import x0j3m.virtualwardrobe.service.ClothesTypeService;
 
 import java.net.URI;
@@ -11,6 +16,8 @@ import java.net.URI;
 @RestController
 @RequestMapping("/clothes-types")
 public class ClothesTypeController {
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     private final ClothesTypeService clothesTypeService;
 
     public ClothesTypeController(ClothesTypeService clothesTypeService) {
@@ -18,30 +25,41 @@ public class ClothesTypeController {
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<ClothesType> getClothesType(@PathVariable Long id) {
+    public ResponseEntity<ClothesTypeView> getClothesType(@PathVariable Long id) {
         try {
             ClothesType clothesType = clothesTypeService.getClothesType(id);
             if (clothesType == null) {
                 return ResponseEntity.notFound().build();
             }
-            return ResponseEntity.ok(clothesType);
+            return ResponseEntity.ok(ClothesTypeView.of(clothesType));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @GetMapping
-    public ResponseEntity<Iterable<ClothesType>> getAllClothesTypes(Pageable pageable) {
+    public ResponseEntity<Iterable<ClothesTypeView>> getAllClothesTypes(Pageable pageable,
+                                                                        @RequestParam(required = false) String after,
+                                                                        @RequestParam(defaultValue = "false") boolean includeTotal,
+                                                                        WebRequest webRequest) {
+        String etag = "clothes-types-" + clothesTypeService.getVersion();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+        }
+        HttpHeaders headers = includeTotal ? TotalCount.headers(clothesTypeService.countClothesTypes(), true) : new HttpHeaders();
+        if (after != null) {
+            return KeysetCursor.page(after, pageable, ClothesType.class, clothesTypeService::getAllClothesTypes, etag, headers, CACHE_CONTROL);
+        }
         try {
-            Iterable<ClothesType> clothesTypes = clothesTypeService.getAllClothesTypes(
+            Iterable<ClothesTypeView> clothesTypes = clothesTypeService.getAllClothesTypes(
                     pageable.getPageNumber(),
                     pageable.getPageSize(),
                     pageable.getSort()
             );
             if (clothesTypes.iterator().hasNext()) {
-                return ResponseEntity.ok(clothesTypes);
+                return ResponseEntity.ok().headers(headers).eTag(etag).cacheControl(CACHE_CONTROL).body(clothesTypes);
             }
-            return ResponseEntity.noContent().build();
+            return ResponseEntity.noContent().headers(headers).eTag(etag).cacheControl(CACHE_CONTROL).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
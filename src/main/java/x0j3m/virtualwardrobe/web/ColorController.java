@@ -1,9 +1,14 @@
 package x0j3m.virtualwardrobe.web;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import x0j3m.virtualwardrobe.model.Color;
+import x0j3m.virtualwardrobe.model.ColorView;
 import x0j3m.virtualwardrobe.service.ColorService;
 
 import java.net.URI;
@@ -11,6 +16,8 @@ import java.net.URI;
 @RestController
 @RequestMapping("/colors")
 public class ColorController {
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     private final ColorService colorService;
 
     public ColorController(ColorService colorService) {
@@ -18,29 +25,40 @@ public class ColorController {
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Color> getColor(@PathVariable Long id) {
+    public ResponseEntity<ColorView> getColor(@PathVariable Long id) {
         try {
             Color color = colorService.getColor(id);
             if (color == null) {
                 return ResponseEntity.notFound().build();
             }
-            return ResponseEntity.ok(color);
+            return ResponseEntity.ok(ColorView.of(color));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @GetMapping
-    public ResponseEntity<Iterable<Color>> getAllColors(Pageable pageable) {
-        Iterable<Color> colors = colorService.getAllColors(
+    public ResponseEntity<Iterable<ColorView>> getAllColors(Pageable pageable,
+                                                            @RequestParam(required = false) String after,
+                                                            @RequestParam(defaultValue = "false") boolean includeTotal,
+                                                            WebRequest webRequest) {
+        String etag = "colors-" + colorService.getVersion();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+        }
+        HttpHeaders headers = includeTotal ? TotalCount.headers(colorService.countColors(), true) : new HttpHeaders();
+        if (after != null) {
+            return KeysetCursor.page(after, pageable, Color.class, colorService::getAllColors, etag, headers, CACHE_CONTROL);
+        }
+        Iterable<ColorView> colors = colorService.getAllColors(
                 pageable.getPageNumber(),
                 pageable.getPageSize(),
                 pageable.getSort()
         );
         if (colors.iterator().hasNext()) {
-            return ResponseEntity.ok(colors);
+            return ResponseEntity.ok().headers(headers).eTag(etag).cacheControl(CACHE_CONTROL).body(colors);
         }
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.noContent().headers(headers).eTag(etag).cacheControl(CACHE_CONTROL).build();
     }
 
     @PostMapping
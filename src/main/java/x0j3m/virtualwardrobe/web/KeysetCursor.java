@@ -0,0 +1,125 @@
+package x0j3m.virtualwardrobe.web;
+
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opaque {@code after} token for keyset pagination. It carries the sort key values and id of the
+ * last row of a page, url-encoded as {@code key=value&...} and then base64url-encoded. Values are
+ * converted back to the type of the entity property they belong to, so the keyset query binds
+ * them with the right type.
+ * <p>
+ * List endpoints switch to keyset mode when the {@code after} parameter is present: an empty value
+ * starts at the first row, and the {@value #NEXT_CURSOR_HEADER} response header carries the value
+ * for the next page while there is one. A cursor only fits the sort it was made with, so one sent
+ * with a different sort is rejected as invalid.
+ */
+final class KeysetCursor {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final ConversionService CONVERSION = DefaultConversionService.getSharedInstance();
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Reads the page after {@code after} and builds the list response shared by the keyset list
+     * endpoints: 400 for an invalid cursor, 204 for an empty page, and the next cursor header
+     * while there are more rows.
+     */
+    static <T> ResponseEntity<Iterable<T>> page(String after, Pageable pageable, Class<?> entityType, Query<T> query,
+                                                String etag, HttpHeaders headers, CacheControl cacheControl) {
+        Window<T> window;
+        try {
+            window = query.find(decode(after, pageable.getSort(), entityType), pageable.getPageSize(), pageable.getSort());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (window.isEmpty()) {
+            return ResponseEntity.noContent().headers(headers).eTag(etag).cacheControl(cacheControl).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().headers(headers).eTag(etag).cacheControl(cacheControl);
+        if (window.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, encode(window.positionAt(window.size() - 1)));
+        }
+        return response.body(window.getContent());
+    }
+
+    static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions can be encoded");
+        }
+        StringBuilder cursor = new StringBuilder();
+        for (Map.Entry<String, Object> key : keyset.getKeys().entrySet()) {
+            if (!cursor.isEmpty()) {
+                cursor.append('&');
+            }
+            cursor.append(URLEncoder.encode(key.getKey(), StandardCharsets.UTF_8));
+            if (key.getValue() != null) {
+                cursor.append('=').append(URLEncoder.encode(
+                        CONVERSION.convert(key.getValue(), String.class), StandardCharsets.UTF_8));
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the position after the row the cursor was made from, or the initial position for an
+     * empty cursor. The cursor must hold exactly the keys of {@code sort} and the id.
+     */
+    static KeysetScrollPosition decode(String cursor, Sort sort, Class<?> entityType) throws IllegalArgumentException {
+        if (cursor == null || cursor.isEmpty()) {
+            return ScrollPosition.keyset();
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        Set<String> expectedKeys = new HashSet<>();
+        sort.forEach(order -> expectedKeys.add(order.getProperty()));
+        expectedKeys.add("id");
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            for (String pair : decoded.split("&")) {
+                int separator = pair.indexOf('=');
+                String key = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), StandardCharsets.UTF_8);
+                Object value = null;
+                if (separator >= 0) {
+                    Class<?> type = PropertyPath.from(key, entityType).getLeafProperty().getType();
+                    value = CONVERSION.convert(
+                            URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8), type);
+                }
+                keys.put(key, value);
+            }
+        } catch (PropertyReferenceException | ConversionException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (!expectedKeys.equals(keys.keySet())) {
+            throw new IllegalArgumentException("Cursor does not match the sort");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    @FunctionalInterface
+    interface Query<T> {
+        Window<T> find(ScrollPosition position, int size, Sort sort);
+    }
+}
@@ -0,0 +1,65 @@
+package x0j3m.virtualwardrobe.web;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.service.ClothesService;
+import x0j3m.virtualwardrobe.service.OutfitEngine;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/outfits")
+public class OutfitController {
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+    static final String TRUNCATED_HEADER = "X-Outfits-Truncated";
+
+    private final OutfitEngine outfitEngine;
+    private final ClothesService clothesService;
+
+    public OutfitController(OutfitEngine outfitEngine, ClothesService clothesService) {
+        this.outfitEngine = outfitEngine;
+        this.clothesService = clothesService;
+    }
+
+    @GetMapping("/generate")
+    public ResponseEntity<List<OutfitEngine.Outfit>> generateOutfits(
+            @RequestParam(defaultValue = "BASE_LAYER,BOTTOMWEAR,FOOTWEAR") List<ClothesLayer> required,
+            @RequestParam(required = false) List<ClothesLayer> optional,
+            @RequestParam(required = false) Set<Long> colors,
+            @RequestParam(defaultValue = "3") int maxColors,
+            @RequestParam(defaultValue = "20") int limit,
+            WebRequest webRequest,
+            HttpServletResponse servletResponse) {
+        String etag = "clothes-" + clothesService.getVersion();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+        }
+        OutfitEngine.Result result;
+        try {
+            result = outfitEngine.generate(new OutfitEngine.Query(required, optional, colors, maxColors, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<OutfitEngine.Outfit> outfits = result.outfits();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(outfits.isEmpty() ? HttpStatus.NO_CONTENT : HttpStatus.OK);
+        if (result.truncated()) {
+            // Which outfits a truncated search finds depends on thread timing, so it must not match
+            // the clothes version: replace the ETag checkNotModified already set with a weak one.
+            servletResponse.setHeader(HttpHeaders.ETAG, "W/\"" + etag + "-truncated\"");
+            response.header(TRUNCATED_HEADER, "true").cacheControl(CacheControl.noStore());
+        } else {
+            response.eTag(etag).cacheControl(CACHE_CONTROL);
+        }
+        return outfits.isEmpty() ? response.build() : response.body(outfits);
+    }
+}
@@ -0,0 +1,28 @@
+package x0j3m.virtualwardrobe.web;
+
+import org.springframework.http.HttpHeaders;
+import x0j3m.virtualwardrobe.data.TableStatistics;
+
+/**
+ * Headers for the opt-in {@code includeTotal} flag of list endpoints. Lists are read as slices and
+ * run no count query unless a client asks for the total. The total may be an estimate from table
+ * statistics on large tables, which {@value #EXACT_HEADER} reports as {@code false}.
+ */
+final class TotalCount {
+    static final String HEADER = "X-Total-Count";
+    static final String EXACT_HEADER = "X-Total-Count-Exact";
+
+    private TotalCount() {
+    }
+
+    static HttpHeaders headers(long count, boolean exact) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HEADER, Long.toString(count));
+        headers.set(EXACT_HEADER, Boolean.toString(exact));
+        return headers;
+    }
+
+    static HttpHeaders headers(TableStatistics.Total total) {
+        return headers(total.count(), total.exact());
+    }
+}
@@ -1,12 +1,20 @@
 package x0j3m.virtualwardrobe.web;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import x0j3m.virtualwardrobe.model.Role;
 import x0j3m.virtualwardrobe.model.User;
+import x0j3m.virtualwardrobe.security.PasswordHashingRejectedException;
+import x0j3m.virtualwardrobe.security.TokenService;
+import x0j3m.virtualwardrobe.service.UserAvailabilityService;
 import x0j3m.virtualwardrobe.service.UserService;
+import x0j3m.virtualwardrobe.web.dto.TokenResponseDTO;
+import x0j3m.virtualwardrobe.web.dto.UserAvailabilityDTO;
 import x0j3m.virtualwardrobe.web.dto.UserRequestDTO;
 
 import java.net.URI;
@@ -15,9 +23,15 @@ import java.net.URI;
 @RequestMapping("/user")
 public class UserController {
     private final UserService userService;
+    private final TokenService tokenService;
+    private final UserAvailabilityService userAvailabilityService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService,
+                          TokenService tokenService,
+                          UserAvailabilityService userAvailabilityService) {
         this.userService = userService;
+        this.tokenService = tokenService;
+        this.userAvailabilityService = userAvailabilityService;
     }
 
     @GetMapping
@@ -52,11 +66,30 @@ public class UserController {
             long id = userService.saveUser(user);
             URI location = URI.create("/user/" + id);
             return ResponseEntity.created(location).build();
+        } catch (PasswordHashingRejectedException e) {
+            return serviceUnavailable();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @GetMapping("/available")
+    public ResponseEntity<UserAvailabilityDTO> checkAvailability(@RequestParam(required = false) String username,
+                                                                 @RequestParam(required = false) String email) {
+        if (username == null && email == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            UserAvailabilityDTO dto = new UserAvailabilityDTO(
+                    username == null ? null : userAvailabilityService.isUsernameAvailable(username),
+                    email == null ? null : userAvailabilityService.isEmailAvailable(email)
+            );
+            return ResponseEntity.ok(dto);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping
     public ResponseEntity<Void> deleteUser(@AuthenticationPrincipal UserDetails userDetails) {
         try {
@@ -90,8 +123,65 @@ public class UserController {
             User updated = userService.updateUser(user.getId(), update);
             URI location = URI.create("/user/" + updated.getId());
             return ResponseEntity.created(location).build();
+        } catch (PasswordHashingRejectedException e) {
+            return serviceUnavailable();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/token")
+    public ResponseEntity<TokenResponseDTO> issueToken(@AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            String username = userDetails.getUsername();
+            if (username == null) {
+                throw new NullPointerException("Username is null");
+            }
+            User user = userService.getUser(username);
+            if (user == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(toTokenResponse(tokenService.issue(user)));
         } catch (IllegalArgumentException | NullPointerException e) {
             return ResponseEntity.notFound().build();
         }
     }
+
+    @PostMapping("/token/refresh")
+    public ResponseEntity<TokenResponseDTO> refreshToken(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        try {
+            String token = authorization.substring(authorization.indexOf(' ') + 1).trim();
+            return ResponseEntity.ok(toTokenResponse(tokenService.refresh(token)));
+        } catch (AuthenticationException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    @DeleteMapping("/token")
+    public ResponseEntity<Void> revokeTokens(@AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            String username = userDetails.getUsername();
+            if (username == null) {
+                throw new NullPointerException("Username is null");
+            }
+            User user = userService.getUser(username);
+            if (user == null) {
+                return ResponseEntity.notFound().build();
+            }
+            tokenService.revoke(user.getId());
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    private static <T> ResponseEntity<T> serviceUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
+    private static TokenResponseDTO toTokenResponse(TokenService.Token token) {
+        return new TokenResponseDTO(token.value(), "Bearer", token.expiresAt());
+    }
 }
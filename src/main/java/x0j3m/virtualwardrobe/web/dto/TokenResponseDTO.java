@@ -0,0 +1,9 @@
+package x0j3m.virtualwardrobe.web.dto;
+
+import java.time.Instant;
+
+public record TokenResponseDTO(
+        String token,
+        String tokenType,
+        Instant expiresAt) {
+}
@@ -0,0 +1,6 @@
+package x0j3m.virtualwardrobe.web.dto;
+
+public record UserAvailabilityDTO(
+        Boolean username,
+        Boolean email) {
+}
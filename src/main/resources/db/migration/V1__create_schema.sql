@@ -0,0 +1,46 @@
+-- Tables as the entity mappings define them. Databases created by ddl-auto=update before
+-- migrations were introduced already have these and are baselined at this version.
+
+CREATE TABLE id_generators (
+    segment  VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (segment)
+);
+
+CREATE TABLE colors (
+    id   BIGINT       NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_colors_name UNIQUE (name)
+);
+
+CREATE TABLE clothes_types (
+    id    BIGINT       NOT NULL,
+    name  VARCHAR(255) NOT NULL,
+    layer ENUM ('ACCESSORY','BASE_LAYER','BOTTOMWEAR','FOOTWEAR','HEADWEAR','MID_LAYER','OUTER_LAYER') NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_clothes_types_name UNIQUE (name)
+);
+
+CREATE TABLE clothes (
+    id       BIGINT NOT NULL,
+    color_id BIGINT,
+    type_id  BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_clothes_color FOREIGN KEY (color_id) REFERENCES colors (id),
+    CONSTRAINT fk_clothes_type FOREIGN KEY (type_id) REFERENCES clothes_types (id)
+);
+
+-- The unique constraints double as the indexes behind login and availability lookups.
+CREATE TABLE users (
+    id         BIGINT       NOT NULL,
+    username   VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    role       TINYINT      NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
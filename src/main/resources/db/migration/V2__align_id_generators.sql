@@ -0,0 +1,37 @@
+-- Moves every id generator row past the highest id in its table, so tables filled while ids
+-- were generated by the database keep working with the pooled table generators. Databases
+-- baselined at version 1 were created with IDENTITY ids and have no generator table yet.
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    segment  VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (segment)
+);
+
+INSERT INTO id_generators (segment, next_val)
+SELECT 'colors', 1 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM id_generators WHERE segment = 'colors');
+UPDATE id_generators
+SET next_val = GREATEST(COALESCE(next_val, 0), (SELECT COALESCE(MAX(id), 0) + 1 FROM colors))
+WHERE segment = 'colors';
+
+INSERT INTO id_generators (segment, next_val)
+SELECT 'clothes_types', 1 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM id_generators WHERE segment = 'clothes_types');
+UPDATE id_generators
+SET next_val = GREATEST(COALESCE(next_val, 0), (SELECT COALESCE(MAX(id), 0) + 1 FROM clothes_types))
+WHERE segment = 'clothes_types';
+
+INSERT INTO id_generators (segment, next_val)
+SELECT 'clothes', 1 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM id_generators WHERE segment = 'clothes');
+UPDATE id_generators
+SET next_val = GREATEST(COALESCE(next_val, 0), (SELECT COALESCE(MAX(id), 0) + 1 FROM clothes))
+WHERE segment = 'clothes';
+
+INSERT INTO id_generators (segment, next_val)
+SELECT 'users', 1 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM id_generators WHERE segment = 'users');
+UPDATE id_generators
+SET next_val = GREATEST(COALESCE(next_val, 0), (SELECT COALESCE(MAX(id), 0) + 1 FROM users))
+WHERE segment = 'users';
@@ -0,0 +1,8 @@
+-- Indexes for the clothes list filters. idx_clothes_color_type also serves lookups by color alone
+-- and the color foreign key, so clothes(color_id) needs no index of its own.
+
+CREATE INDEX idx_clothes_color_type ON clothes (color_id, type_id);
+
+CREATE INDEX idx_clothes_type ON clothes (type_id);
+
+CREATE INDEX idx_clothes_types_layer ON clothes_types (layer);
@@ -0,0 +1,40 @@
+package x0j3m.virtualwardrobe.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import x0j3m.virtualwardrobe.security.CostAwareBCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hash and verify latency per BCrypt cost level.
+ * Run with {@code ./mvnw -Pbenchmark test -DskipTests -Dbenchmark=BCryptBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class BCryptBenchmark {
+    @Param({"10", "11", "12", "13", "14"})
+    private int cost;
+
+    private CostAwareBCryptPasswordEncoder encoder;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        encoder = new CostAwareBCryptPasswordEncoder(cost);
+        encoded = encoder.encode("benchmark-password");
+    }
+
+    @Benchmark
+    public String hash() {
+        return encoder.encode("benchmark-password");
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return encoder.matches("benchmark-password", encoded);
+    }
+}
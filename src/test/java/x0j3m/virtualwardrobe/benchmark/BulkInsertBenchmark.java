@@ -0,0 +1,133 @@
+package x0j3m.virtualwardrobe.benchmark;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.TableGenerator;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.*;
+import x0j3m.virtualwardrobe.data.TimeOrderedId;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert cost per row for IDENTITY ids compared with a pooled-lo table generator and
+ * in-memory time-ordered ids, all with JDBC batching enabled, against in-memory H2.
+ * Run with {@code ./mvnw -Pbenchmark test -DskipTests -Dbenchmark=BulkInsertBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+    private static final int ROWS = 1000;
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"identity", "pooled", "time-ordered"})
+    private String strategy;
+
+    private SessionFactory sessionFactory;
+    private StandardServiceRegistry registry;
+
+    @Setup
+    public void setUp() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:bulk-insert;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, BATCH_SIZE)
+                .applySetting(AvailableSettings.ORDER_INSERTS, true)
+                .applySetting(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(IdentityRow.class)
+                .addAnnotatedClass(PooledRow.class)
+                .addAnnotatedClass(TimeOrderedRow.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insert() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < ROWS; i++) {
+                session.persist(row(i));
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    private Object row(int i) {
+        return switch (strategy) {
+            case "identity" -> new IdentityRow("row" + i);
+            case "pooled" -> new PooledRow("row" + i);
+            default -> new TimeOrderedRow("row" + i);
+        };
+    }
+
+    @Entity
+    public static class IdentityRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+        private String name;
+
+        protected IdentityRow() {
+        }
+
+        IdentityRow(String name) {
+            this.name = name;
+        }
+    }
+
+    @Entity
+    public static class PooledRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.TABLE, generator = "pooled_row_id")
+        @TableGenerator(name = "pooled_row_id", table = "id_generators", pkColumnName = "segment",
+                valueColumnName = "next_val", pkColumnValue = "pooled_rows", allocationSize = 50)
+        private Long id;
+        private String name;
+
+        protected PooledRow() {
+        }
+
+        PooledRow(String name) {
+            this.name = name;
+        }
+    }
+
+    @Entity
+    public static class TimeOrderedRow {
+        @Id
+        @TimeOrderedId
+        private Long id;
+        private String name;
+
+        protected TimeOrderedRow() {
+        }
+
+        TimeOrderedRow(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package x0j3m.virtualwardrobe.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesView;
+import x0j3m.virtualwardrobe.service.OutfitEngine;
+import x0j3m.virtualwardrobe.service.Wardrobe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outfit search over generated wardrobes, on the common fork-join pool compared with a single
+ * thread, with a tight color budget that leaves few matches and a color filter. Building the
+ * wardrobe from loaded rows is measured separately.
+ * Run with {@code ./mvnw -Pbenchmark test -DskipTests -Dbenchmark=OutfitBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutfitBenchmark {
+    private static final int COLORS = 40;
+    private static final List<ClothesLayer> REQUIRED =
+            List.of(ClothesLayer.BASE_LAYER, ClothesLayer.BOTTOMWEAR, ClothesLayer.FOOTWEAR);
+    private static final List<ClothesLayer> OPTIONAL = List.of(ClothesLayer.OUTER_LAYER, ClothesLayer.HEADWEAR);
+
+    @Param({"10000", "50000"})
+    private int items;
+
+    @Param({"1", "2"})
+    private int maxColors;
+
+    private List<ClothesView> clothes;
+    private Wardrobe wardrobe;
+    private ForkJoinPool singleThread;
+    private OutfitEngine.Query anyColor;
+    private OutfitEngine.Query fewColors;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        ClothesLayer[] layers = ClothesLayer.values();
+        clothes = new ArrayList<>(items);
+        for (long id = 1; id <= items; id++) {
+            long colorId = 1 + random.nextInt(COLORS);
+            clothes.add(new ClothesView(id, colorId, "color" + colorId, 1L, "type",
+                    layers[random.nextInt(layers.length)]));
+        }
+        wardrobe = Wardrobe.of(clothes);
+        singleThread = new ForkJoinPool(1);
+        anyColor = new OutfitEngine.Query(REQUIRED, OPTIONAL, Set.of(), maxColors, 100);
+        fewColors = new OutfitEngine.Query(REQUIRED, OPTIONAL, Set.of(3L, 17L), maxColors, 100);
+    }
+
+    @TearDown
+    public void tearDown() {
+        singleThread.shutdownNow();
+    }
+
+    @Benchmark
+    public Wardrobe load() {
+        return Wardrobe.of(clothes);
+    }
+
+    @Benchmark
+    public OutfitEngine.Result parallel() {
+        return wardrobe.outfits(anyColor, ForkJoinPool.commonPool(), Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public OutfitEngine.Result sequential() {
+        return wardrobe.outfits(anyColor, singleThread, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public OutfitEngine.Result parallelColorFilter() {
+        return wardrobe.outfits(fewColors, ForkJoinPool.commonPool(), Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public OutfitEngine.Result sequentialColorFilter() {
+        return wardrobe.outfits(fewColors, singleThread, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,97 @@
+package x0j3m.virtualwardrobe.benchmark;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.*;
+import x0j3m.virtualwardrobe.data.ClothesRepository;
+import x0j3m.virtualwardrobe.model.Clothes;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.ClothesView;
+import x0j3m.virtualwardrobe.model.Color;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading one page of clothes as managed entities, fetched with their color and type,
+ * compared with projecting the same joined rows into {@link ClothesView} records, against
+ * in-memory H2. Heap allocated per page is the {@code gc.alloc.rate.norm} line of the GC profiler,
+ * which the benchmark profile enables.
+ * Run with {@code ./mvnw -Pbenchmark test -DskipTests -Dbenchmark=ReadProjectionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadProjectionBenchmark {
+    private static final int ROWS = 1000;
+    private static final int CATALOG_SIZE = 20;
+    private static final String ENTITY_QUERY =
+            "select c from Clothes c join fetch c.color join fetch c.type order by c.id";
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private SessionFactory sessionFactory;
+    private StandardServiceRegistry registry;
+
+    @Setup
+    public void setUp() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:read-projection;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, false)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Color.class)
+                .addAnnotatedClass(ClothesType.class)
+                .addAnnotatedClass(Clothes.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            Color[] colors = new Color[CATALOG_SIZE];
+            ClothesType[] types = new ClothesType[CATALOG_SIZE];
+            for (int i = 0; i < CATALOG_SIZE; i++) {
+                colors[i] = new Color("color" + i);
+                types[i] = new ClothesType("type" + i, ClothesLayer.values()[i % ClothesLayer.values().length]);
+                session.persist(colors[i]);
+                session.persist(types[i]);
+            }
+            for (int i = 0; i < ROWS; i++) {
+                session.persist(new Clothes(colors[i % CATALOG_SIZE], types[(i / CATALOG_SIZE) % CATALOG_SIZE]));
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Benchmark
+    public List<Clothes> entities() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createSelectionQuery(ENTITY_QUERY, Clothes.class)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+        }
+    }
+
+    @Benchmark
+    public List<ClothesView> projection() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createSelectionQuery(ClothesRepository.VIEW_QUERY + " order by c.id", ClothesView.class)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+        }
+    }
+}
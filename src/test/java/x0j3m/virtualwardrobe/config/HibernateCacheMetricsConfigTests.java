@@ -0,0 +1,47 @@
+package x0j3m.virtualwardrobe.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import x0j3m.virtualwardrobe.data.ColorRepository;
+import x0j3m.virtualwardrobe.model.Color;
+
+import java.util.Collection;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(HibernateCacheMetricsConfig.class)
+public class HibernateCacheMetricsConfigTests {
+    @Autowired
+    private MeterBinder hibernateCacheHitRatio;
+    @Autowired
+    private ColorRepository colorRepository;
+
+    @Test
+    void hibernateCacheHitRatio_whenRegionsAreRead_shouldReportFiniteRatioForEveryRegion() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hibernateCacheHitRatio.bindTo(registry);
+
+        assertFinite(registry);
+        colorRepository.save(new Color("black"));
+        colorRepository.findByName("black");
+        colorRepository.findByName("black");
+        assertFinite(registry);
+    }
+
+    private static void assertFinite(SimpleMeterRegistry registry) {
+        Collection<Gauge> regions = registry.find("hibernate.cache.hit.ratio").gauges();
+        Assertions.assertTrue(regions.stream().anyMatch(gauge -> gauge.getId().getTag("region").endsWith("default-query-results-region")));
+        for (Gauge gauge : regions) {
+            Assertions.assertTrue(Double.isFinite(gauge.value()), gauge.getId().toString());
+        }
+        Assertions.assertTrue(Double.isFinite(registry.get("hibernate.query.cache.hit.ratio").gauge().value()));
+    }
+}
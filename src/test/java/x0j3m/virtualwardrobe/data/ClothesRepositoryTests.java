@@ -1,5 +1,9 @@
 package x0j3m.virtualwardrobe.data;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,16 +11,33 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import x0j3m.virtualwardrobe.model.Clothes;
 import x0j3m.virtualwardrobe.model.ClothesType;
 import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesView;
 import x0j3m.virtualwardrobe.model.Color;
+import x0j3m.virtualwardrobe.service.ClothesFacets;
+import x0j3m.virtualwardrobe.service.ClothesService;
+import x0j3m.virtualwardrobe.service.ClothesTypeService;
+import x0j3m.virtualwardrobe.service.ColorService;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 @DataJpaTest
 @AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import({ClothesService.class, ColorService.class, ClothesTypeService.class, TableStatistics.class, ClothesFacets.class})
 public class ClothesRepositoryTests {
     @Autowired
     private ClothesRepository clothesRepository;
@@ -24,6 +45,16 @@ public class ClothesRepositoryTests {
     private ColorRepository colorRepository;
     @Autowired
     private ClothesTypeRepository clothesTypeRepository;
+    @Autowired
+    private ClothesService clothesService;
+    @Autowired
+    private ColorService colorService;
+    @Autowired
+    private ClothesTypeService clothesTypeService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     @BeforeEach
     void setUp() {
@@ -71,6 +102,21 @@ public class ClothesRepositoryTests {
         Assertions.assertEquals(savedClothes.getType(), updatedClothes.getType());
     }
 
+    @Test
+    void deleteClothesById_whenRowIsLockedAndDeleted_shouldReturnRowCount() {
+        Color color = colorRepository.findAll().iterator().next();
+        ClothesType type = clothesTypeRepository.findAll().iterator().next();
+        Long id = clothesRepository.save(new Clothes(color, type)).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        Clothes locked = clothesRepository.findForUpdateById(id).orElseThrow();
+
+        Assertions.assertEquals(color.getId(), locked.getColor().getId());
+        Assertions.assertEquals(1, clothesRepository.deleteClothesById(id));
+        Assertions.assertEquals(0, clothesRepository.deleteClothesById(id));
+    }
+
     @Test
     void findAll_whenTableIsEmpty_shouldReturnEmpty() {
         Iterable<Clothes> allClothes = clothesRepository.findAll();
@@ -228,4 +274,182 @@ public class ClothesRepositoryTests {
     void deleteById_whenClothesDoesNotExist_shouldNotThrowException() {
         Assertions.assertDoesNotThrow(() -> clothesRepository.deleteById(999L));
     }
+
+    @Test
+    void saveClothes_whenColorAndTypeExist_shouldIssueSingleStatement() {
+        Long colorId = colorService.saveColor("referencedColor");
+        Long typeId = clothesTypeService.saveClothesType("referencedType", ClothesLayer.ACCESSORY);
+        clothesService.saveClothes(colorId, typeId);
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+
+        Long savedId = clothesService.saveClothes(colorId, typeId);
+
+        Assertions.assertNotNull(savedId);
+        Assertions.assertEquals(statements + 1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void save_whenColorDoesNotExist_shouldThrowDataIntegrityViolationException() {
+        Long typeId = clothesTypeRepository.findAll().iterator().next().getId();
+        Clothes clothes = new Clothes(colorRepository.getReferenceById(999L), clothesTypeRepository.getReferenceById(typeId));
+
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> clothesRepository.saveAndFlush(clothes));
+    }
+
+    @Test
+    void saveAllClothes_whenChunkIsFlushed_shouldInsertWithOneBatchedStatement() {
+        Long colorId = colorService.saveColor("batchedColor");
+        Long typeId = clothesTypeService.saveClothesType("batchedType", ClothesLayer.ACCESSORY);
+        clothesService.saveClothes(colorId, typeId);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+
+        List<Long> ids = clothesService.saveAllClothes(
+                Collections.nCopies(10, new ClothesService.ClothesIds(colorId, typeId)));
+        entityManager.flush();
+
+        Assertions.assertEquals(10, ids.size());
+        Assertions.assertEquals(statements + 1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findAllBy_whenWindowIsRead_shouldFetchColorsAndTypesInSameStatement() {
+        saveClothesWithDistinctColorsAndTypes();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int size : new int[]{2, 20}) {
+            entityManager.clear();
+            entityManagerFactory.getCache().evictAll();
+            long statements = statistics.getPrepareStatementCount();
+
+            Window<Clothes> window = clothesRepository.findAllBy(ScrollPosition.keyset(), Sort.by("id"), Limit.of(size));
+            window.forEach(clothes -> {
+                Assertions.assertNotNull(clothes.getColor().getName());
+                Assertions.assertNotNull(clothes.getType().getName());
+            });
+
+            Assertions.assertEquals(size, window.size());
+            Assertions.assertEquals(1, statistics.getPrepareStatementCount() - statements);
+        }
+    }
+
+    @Test
+    void findViewsBy_whenPageIsRead_shouldProjectRowsWithoutLoadingEntities() {
+        saveClothesWithDistinctColorsAndTypes();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        long statements = statistics.getPrepareStatementCount();
+        long entityLoads = statistics.getEntityLoadCount();
+
+        Slice<ClothesView> page = clothesRepository.findViewsBy(PageRequest.of(0, 20, Sort.by("color.name")));
+
+        Assertions.assertEquals(20, page.getNumberOfElements());
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount() - statements);
+        Assertions.assertEquals(entityLoads, statistics.getEntityLoadCount());
+        ClothesView first = page.getContent().get(0);
+        Assertions.assertEquals("testColor1", first.colorName());
+        Assertions.assertEquals("testType20", first.typeName());
+        Assertions.assertEquals(ClothesLayer.ACCESSORY, first.layer());
+    }
+
+    @Test
+    void findViewsBy_whenColorAndTypeAreNull_shouldStillReturnClothes() {
+        Clothes bare = clothesRepository.save(new Clothes(null, null));
+        clothesRepository.save(new Clothes(colorRepository.findByName("testColor1").orElseThrow(),
+                clothesTypeRepository.findByName("testType1").orElseThrow()));
+        entityManager.flush();
+        entityManager.clear();
+
+        Slice<ClothesView> page = clothesRepository.findViewsBy(PageRequest.of(0, 20, Sort.by("color.name")));
+        Slice<ClothesView> found = clothesRepository.search(new ClothesSearch.Filter(null, null, null),
+                PageRequest.of(0, 20, Sort.by("type.name")));
+
+        Assertions.assertEquals(2, page.getNumberOfElements());
+        Assertions.assertEquals(2, found.getNumberOfElements());
+        ClothesView view = clothesRepository.findViewById(bare.getId()).orElseThrow();
+        Assertions.assertNull(view.color());
+        Assertions.assertNull(view.type());
+    }
+
+    @Test
+    void streamViewsBy_whenTableIsNotEmpty_shouldStreamAllClothesInIdOrder() {
+        saveClothesWithDistinctColorsAndTypes();
+        entityManager.clear();
+
+        List<ClothesView> clothes;
+        try (Stream<ClothesView> stream = clothesRepository.streamViewsBy()) {
+            clothes = stream.toList();
+        }
+
+        Assertions.assertEquals(20, clothes.size());
+        for (int i = 1; i < clothes.size(); i++) {
+            Assertions.assertTrue(clothes.get(i - 1).id() < clothes.get(i).id());
+        }
+        Assertions.assertEquals(0, entityManager.getEntityManager().unwrap(Session.class)
+                .getStatistics().getEntityCount());
+    }
+
+    @Test
+    void search_whenFilteredByColorAndLayer_shouldReturnOnlyMatchingClothes() {
+        Color color = colorRepository.findByName("testColor1").orElseThrow();
+        ClothesType accessory = clothesTypeRepository.findByName("testType1").orElseThrow();
+        ClothesType outerwear = clothesTypeRepository.save(new ClothesType("testCoat", ClothesLayer.OUTER_LAYER));
+        Clothes coat = clothesRepository.save(new Clothes(color, outerwear));
+        clothesRepository.save(new Clothes(color, accessory));
+        clothesRepository.save(new Clothes(colorRepository.findByName("testColor2").orElseThrow(), outerwear));
+        entityManager.flush();
+
+        Slice<ClothesView> clothes = clothesRepository.search(
+                new ClothesSearch.Filter(color.getId(), null, ClothesLayer.OUTER_LAYER), PageRequest.of(0, 20));
+
+        Assertions.assertEquals(1, clothes.getNumberOfElements());
+        Assertions.assertEquals(coat.getId(), clothes.getContent().get(0).id());
+        Assertions.assertFalse(clothes.hasNext());
+    }
+
+    @Test
+    void search_whenMoreRowsThanPage_shouldReportNextSliceInSortOrder() {
+        saveClothesWithDistinctColorsAndTypes();
+
+        Slice<ClothesView> clothes = clothesRepository.search(
+                new ClothesSearch.Filter(null, null, ClothesLayer.ACCESSORY), PageRequest.of(1, 5, Sort.by("color.name").descending()));
+
+        Assertions.assertEquals(5, clothes.getNumberOfElements());
+        Assertions.assertTrue(clothes.hasNext());
+        Assertions.assertEquals("testColor4", clothes.getContent().get(0).colorName());
+    }
+
+    @Test
+    void countByColorAndType_shouldGroupClothesInOneQuery() {
+        Color color = colorRepository.findByName("testColor1").orElseThrow();
+        ClothesType first = clothesTypeRepository.findByName("testType1").orElseThrow();
+        ClothesType second = clothesTypeRepository.findByName("testType2").orElseThrow();
+        clothesRepository.save(new Clothes(color, first));
+        clothesRepository.save(new Clothes(color, first));
+        clothesRepository.save(new Clothes(color, second));
+        entityManager.flush();
+
+        List<ClothesRepository.ColorAndTypeCount> counts = clothesRepository.countByColorAndType();
+
+        Assertions.assertEquals(2, counts.size());
+        for (ClothesRepository.ColorAndTypeCount count : counts) {
+            Assertions.assertEquals(color.getId(), count.getColorId());
+            Assertions.assertEquals(count.getTypeId().equals(first.getId()) ? 2 : 1, count.getCount());
+        }
+    }
+
+    private void saveClothesWithDistinctColorsAndTypes() {
+        for (int i = 4; i <= 20; i++) {
+            colorRepository.save(new Color("testColor" + i));
+            clothesTypeRepository.save(new ClothesType("testType" + i, ClothesLayer.ACCESSORY));
+        }
+        List<Color> colors = (List<Color>) colorRepository.findAll();
+        List<ClothesType> types = (List<ClothesType>) clothesTypeRepository.findAll();
+        for (int i = 0; i < colors.size(); i++) {
+            clothesRepository.save(new Clothes(colors.get(i), types.get(types.size() - 1 - i)));
+        }
+        entityManager.flush();
+    }
 }
@@ -0,0 +1,97 @@
+package x0j3m.virtualwardrobe.data;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import x0j3m.virtualwardrobe.model.Clothes;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL that {@link ClothesSearch} generates for each supported filter
+ * combination and checks that H2 reads both tables through an index.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "x0j3m.virtualwardrobe.data.ClothesSearchPlanTests$RecordingInspector")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class ClothesSearchPlanTests {
+    @Autowired
+    private ClothesRepository clothesRepository;
+    @Autowired
+    private ColorRepository colorRepository;
+    @Autowired
+    private ClothesTypeRepository clothesTypeRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long colorId;
+    private Long typeId;
+
+    @BeforeEach
+    void setUp() {
+        List<Color> colors = new ArrayList<>();
+        List<ClothesType> types = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            colors.add(colorRepository.save(new Color("planColor" + i)));
+            types.add(clothesTypeRepository.save(new ClothesType("planType" + i, ClothesLayer.values()[i % ClothesLayer.values().length])));
+        }
+        for (int i = 0; i < 400; i++) {
+            clothesRepository.save(new Clothes(colors.get(i % colors.size()), types.get(i / colors.size())));
+        }
+        entityManager.flush();
+        colorId = colors.get(0).getId();
+        typeId = types.get(0).getId();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"true,false,false", "false,true,false", "false,false,true", "true,true,false", "true,false,true", "false,true,true", "true,true,true"})
+    void search_whenFiltered_shouldNotScanClothes(boolean byColor, boolean byType, boolean byLayer) {
+        ClothesSearch.Filter filter = new ClothesSearch.Filter(
+                byColor ? colorId : null, byType ? typeId : null, byLayer ? ClothesLayer.ACCESSORY : null);
+        RecordingInspector.statements.clear();
+
+        clothesRepository.search(filter, PageRequest.of(0, 20));
+
+        String sql = RecordingInspector.statements.get(RecordingInspector.statements.size() - 1);
+        List<Object> parameters = new ArrayList<>();
+        if (byColor) {
+            parameters.add(colorId);
+        }
+        if (byType) {
+            parameters.add(typeId);
+        }
+        if (byLayer) {
+            parameters.add(ClothesLayer.ACCESSORY.name());
+        }
+        parameters.add(21);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters.toArray());
+
+        Assertions.assertFalse(plan.contains("PUBLIC.CLOTHES.tableScan"), plan);
+        Assertions.assertFalse(plan.contains("PUBLIC.CLOTHES_TYPES.tableScan"), plan);
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> statements = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
@@ -40,7 +40,7 @@ public class ClothesTypeRepositoryTests {
 
         ClothesType updatedClothesType = new ClothesType("testName", ClothesLayer.BASE_LAYER);
 
-        Assertions.assertThrows(org.springframework.dao.DataIntegrityViolationException.class, () -> clothesTypeRepository.save(updatedClothesType));
+        Assertions.assertThrows(org.springframework.dao.DataIntegrityViolationException.class, () -> clothesTypeRepository.saveAndFlush(updatedClothesType));
     }
 
     @Test
@@ -1,5 +1,8 @@
 package x0j3m.virtualwardrobe.data;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,13 +11,24 @@ import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import x0j3m.virtualwardrobe.model.Color;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @DataJpaTest
 @AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
 public class ColorRepositoryTests {
     @Autowired
     private ColorRepository colorRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     @BeforeEach
     void setUp() {
@@ -40,7 +54,7 @@ public class ColorRepositoryTests {
 
         Color updatedColor = new Color("testColor");
 
-        Assertions.assertThrows(DataIntegrityViolationException.class, () -> colorRepository.save(updatedColor));
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> colorRepository.saveAndFlush(updatedColor));
     }
 
     @Test
@@ -171,4 +185,60 @@ public class ColorRepositoryTests {
     void deleteByName_whenColorDoesNotExist_shouldNotThrowException() {
         Assertions.assertDoesNotThrow(() -> colorRepository.deleteByName("testName"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllBy_whenScrollingByKeyset_shouldReturnEveryColorOnceInSortOrder() {
+        for (String name : List.of("red", "blue", "green", "black", "white")) {
+            colorRepository.save(new Color(name));
+        }
+        Sort sort = Sort.by("name");
+
+        List<String> names = new ArrayList<>();
+        Window<Color> window = colorRepository.findAllBy(ScrollPosition.keyset(), sort, Limit.of(2));
+        window.forEach(color -> names.add(color.getName()));
+        while (window.hasNext()) {
+            window = colorRepository.findAllBy(window.positionAt(window.size() - 1), sort, Limit.of(2));
+            window.forEach(color -> names.add(color.getName()));
+        }
+
+        Assertions.assertEquals(List.of("black", "blue", "green", "red", "white"), names);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void findById_whenCalledTwice_shouldReadSecondFromCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Color saved = colorRepository.save(new Color("cachedColor"));
+        try {
+            colorRepository.findById(saved.getId());
+            long statements = statistics.getPrepareStatementCount();
+
+            Color found = colorRepository.findById(saved.getId()).orElseThrow();
+
+            Assertions.assertEquals("cachedColor", found.getName());
+            Assertions.assertEquals(statements, statistics.getPrepareStatementCount());
+        } finally {
+            colorRepository.deleteById(saved.getId());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void findByName_whenCalledTwice_shouldReadSecondFromQueryCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Color saved = colorRepository.save(new Color("cachedColor"));
+        try {
+            colorRepository.findByName("cachedColor");
+            long statements = statistics.getPrepareStatementCount();
+            long queryCacheHits = statistics.getQueryCacheHitCount();
+
+            Color found = colorRepository.findByName("cachedColor").orElseThrow();
+
+            Assertions.assertEquals(saved.getId(), found.getId());
+            Assertions.assertEquals(statements, statistics.getPrepareStatementCount());
+            Assertions.assertEquals(queryCacheHits + 1, statistics.getQueryCacheHitCount());
+        } finally {
+            colorRepository.deleteById(saved.getId());
+        }
+    }
+}
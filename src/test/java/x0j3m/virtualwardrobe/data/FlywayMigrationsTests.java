@@ -0,0 +1,118 @@
+package x0j3m.virtualwardrobe.data;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.exception.FlywayValidateException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * The context here is started with {@code ddl-auto=validate}, so it only loads if the migrated
+ * schema matches the entity mappings.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=1",
+        "spring.jpa.hibernate.ddl-auto=validate"})
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class FlywayMigrationsTests {
+    private static final String HISTORY = "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"version\" IS NOT NULL AND \"success\" ORDER BY \"installed_rank\"";
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrate_whenDatabaseIsEmpty_shouldApplyEveryVersion() {
+        Assertions.assertEquals(List.of("1", "2", "3"), jdbcTemplate.queryForList(HISTORY, String.class));
+    }
+
+    @Test
+    void migrate_whenDatabaseIsEmpty_shouldCreateQueryIndexes() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME IN ('CLOTHES', 'CLOTHES_TYPES', 'USERS')",
+                String.class);
+
+        Assertions.assertTrue(indexes.containsAll(List.of(
+                "idx_clothes_color_type", "idx_clothes_type", "idx_clothes_types_layer")), indexes.toString());
+        Assertions.assertTrue(indexes.stream().anyMatch(index -> index.startsWith("uk_users_username")), indexes.toString());
+        Assertions.assertTrue(indexes.stream().anyMatch(index -> index.startsWith("uk_users_email")), indexes.toString());
+    }
+
+    @Test
+    void migrate_whenRunAgain_shouldApplyNothing() {
+        Assertions.assertEquals(0, flyway.migrate().migrationsExecuted);
+    }
+
+    /**
+     * Not transactional, so Flyway's own connection sees the changed checksum; it is restored after.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void validate_whenAppliedScriptChanged_shouldThrowFlywayValidateException() {
+        String checksum = "SELECT \"checksum\" FROM \"flyway_schema_history\" WHERE \"version\" = '2'";
+        String update = "UPDATE \"flyway_schema_history\" SET \"checksum\" = ? WHERE \"version\" = '2'";
+        Integer applied = jdbcTemplate.queryForObject(checksum, Integer.class);
+        jdbcTemplate.update(update, 0);
+        try {
+            Assertions.assertThrows(FlywayValidateException.class, flyway::validate);
+        } finally {
+            jdbcTemplate.update(update, applied);
+        }
+    }
+
+    /**
+     * Starts from the schema {@code ddl-auto=update} created before migrations existed: IDENTITY
+     * ids and no generator table.
+     */
+    @Test
+    void migrate_whenTablesExistWithoutHistory_shouldBaselineAndCreateIdGenerators() {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        try {
+            JdbcTemplate legacy = new JdbcTemplate(database);
+            legacy.execute("CREATE TABLE colors (id BIGINT GENERATED BY DEFAULT AS IDENTITY, name VARCHAR(255) NOT NULL UNIQUE, PRIMARY KEY (id))");
+            legacy.execute("CREATE TABLE clothes_types (id BIGINT GENERATED BY DEFAULT AS IDENTITY, name VARCHAR(255) NOT NULL UNIQUE, "
+                    + "layer ENUM ('ACCESSORY','BASE_LAYER','BOTTOMWEAR','FOOTWEAR','HEADWEAR','MID_LAYER','OUTER_LAYER') NOT NULL, PRIMARY KEY (id))");
+            legacy.execute("CREATE TABLE clothes (id BIGINT GENERATED BY DEFAULT AS IDENTITY, color_id BIGINT REFERENCES colors (id), "
+                    + "type_id BIGINT REFERENCES clothes_types (id), PRIMARY KEY (id))");
+            legacy.execute("CREATE TABLE users (id BIGINT GENERATED BY DEFAULT AS IDENTITY, username VARCHAR(255) NOT NULL UNIQUE, "
+                    + "password VARCHAR(255) NOT NULL, first_name VARCHAR(255) NOT NULL, last_name VARCHAR(255) NOT NULL, "
+                    + "email VARCHAR(255) NOT NULL UNIQUE, role TINYINT NOT NULL, PRIMARY KEY (id))");
+            legacy.update("INSERT INTO colors (id, name) VALUES (41, 'black')");
+
+            Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(database)
+                    .load()
+                    .migrate();
+
+            Assertions.assertEquals(List.of("1", "2", "3"), legacy.queryForList(HISTORY, String.class));
+            Assertions.assertEquals(42, nextValue(legacy, "colors"));
+            Assertions.assertEquals(1, nextValue(legacy, "clothes"));
+            Assertions.assertEquals(1, nextValue(legacy, "users"));
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    private static long nextValue(JdbcTemplate jdbcTemplate, String segment) {
+        return jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generators WHERE segment = ?", Long.class, segment);
+    }
+}
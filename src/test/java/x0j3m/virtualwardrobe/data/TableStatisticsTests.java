@@ -0,0 +1,42 @@
+package x0j3m.virtualwardrobe.data;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+public class TableStatisticsTests {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void estimateRowCount_whenTableExists_shouldReturnEstimate() {
+        TableStatistics tableStatistics = new TableStatistics(jdbcTemplate, 100_000);
+
+        Assertions.assertTrue(tableStatistics.estimateRowCount("clothes") >= 0);
+        Assertions.assertEquals(-1, tableStatistics.estimateRowCount("no_such_table"));
+    }
+
+    @Test
+    void total_whenEstimateIsBelowThreshold_shouldCountExactly() {
+        TableStatistics tableStatistics = new TableStatistics(jdbcTemplate, Long.MAX_VALUE);
+
+        Assertions.assertEquals(new TableStatistics.Total(42, true), tableStatistics.total("clothes", () -> 42));
+    }
+
+    @Test
+    void total_whenEstimateReachesThreshold_shouldNotCount() {
+        TableStatistics tableStatistics = new TableStatistics(jdbcTemplate, 0);
+
+        TableStatistics.Total total = tableStatistics.total("clothes", () -> {
+            throw new AssertionError("Counted rows");
+        });
+
+        Assertions.assertFalse(total.exact());
+    }
+}
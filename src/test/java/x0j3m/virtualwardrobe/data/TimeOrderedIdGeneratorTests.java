@@ -0,0 +1,65 @@
+package x0j3m.virtualwardrobe.data;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TimeOrderedIdGeneratorTests {
+    @Test
+    void nextId_whenClockDoesNotMove_shouldStillIncrease() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(3, () -> TimeOrderedIdGenerator.EPOCH + 1000);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            long next = generator.nextId();
+            Assertions.assertTrue(next > previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void nextId_whenClockMoves_shouldEncodeTimestampAndNode() {
+        AtomicLong now = new AtomicLong(TimeOrderedIdGenerator.EPOCH + 1000);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(3, now::get);
+
+        generator.nextId();
+        now.addAndGet(5);
+        long id = generator.nextId();
+
+        Assertions.assertEquals(1005, id >>> 22);
+        Assertions.assertEquals(3, (id >>> 12) & 0x3FF);
+        Assertions.assertEquals(0, id & 0xFFF);
+        Assertions.assertTrue(id > 0);
+    }
+
+    @Test
+    void nextId_whenCalledConcurrently_shouldReturnUniqueIds() throws InterruptedException {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(0, System::currentTimeMillis);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(40_000, ids.size());
+    }
+
+    @Test
+    void constructor_whenNodeIsOutOfRange_shouldThrowIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(1024, System::currentTimeMillis));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(-1, System::currentTimeMillis));
+    }
+}
@@ -37,6 +37,26 @@ public class UserRepositoryTests {
         Assertions.assertEquals(user.getEmail(), saved.getEmail());
     }
 
+    @Test
+    void updatePassword_whenHashIsUnchanged_shouldReplaceIt() {
+        userRepository.saveAndFlush(new User("username", "oldPasswordHash", "firstName", "lastName", "email@email.com"));
+
+        int updated = userRepository.updatePassword("username", "oldPasswordHash", "newPasswordHash");
+
+        Assertions.assertEquals(1, updated);
+        Assertions.assertEquals("newPasswordHash", userRepository.findByUsername("username").orElseThrow().getPassword());
+    }
+
+    @Test
+    void updatePassword_whenHashWasChangedMeanwhile_shouldKeepIt() {
+        userRepository.saveAndFlush(new User("username", "changedHash", "firstName", "lastName", "email@email.com"));
+
+        int updated = userRepository.updatePassword("username", "oldPasswordHash", "rehashedOldPassword");
+
+        Assertions.assertEquals(0, updated);
+        Assertions.assertEquals("changedHash", userRepository.findByUsername("username").orElseThrow().getPassword());
+    }
+
     @Test
     void save_whenUserExistsInDatabase_shouldThrowDataIntegrityViolationException() {
         User user = new User("username", "password", "firstName", "lastName", "email@email.com");
@@ -45,7 +65,7 @@ public class UserRepositoryTests {
 
         User newUser = new User("username", "password1", "firstName1", "lastName1", "email1@email.com");
 
-        Assertions.assertThrows(DataIntegrityViolationException.class, () -> userRepository.save(newUser));
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> userRepository.saveAndFlush(newUser));
     }
 
     @Test
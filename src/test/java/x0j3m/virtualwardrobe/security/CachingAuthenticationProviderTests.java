@@ -0,0 +1,98 @@
+package x0j3m.virtualwardrobe.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import x0j3m.virtualwardrobe.model.User;
+import x0j3m.virtualwardrobe.service.UserChangedEvent;
+
+import java.time.Duration;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingAuthenticationProviderTests {
+    @Mock
+    private AuthenticationProvider delegate;
+
+    private AuthenticationCache cache;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthenticationCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        provider = new CachingAuthenticationProvider(delegate, cache);
+    }
+
+    private static Authentication authenticated(String username) {
+        return UsernamePasswordAuthenticationToken.authenticated(username, null, List.of(new SimpleGrantedAuthority("USER")));
+    }
+
+    @Test
+    void authenticate_whenCredentialsWereVerified_shouldNotCallDelegateAgain() {
+        Mockito.when(delegate.authenticate(Mockito.any())).thenReturn(authenticated("username"));
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("username", "password"));
+        Authentication second = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("username", "password"));
+
+        Assertions.assertTrue(second.isAuthenticated());
+        Assertions.assertEquals("username", second.getName());
+        Mockito.verify(delegate, Mockito.times(1)).authenticate(Mockito.any());
+    }
+
+    @Test
+    void authenticate_whenPasswordDiffersFromCached_shouldCallDelegate() {
+        Mockito.when(delegate.authenticate(Mockito.any()))
+                .thenReturn(authenticated("username"))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("username", "password"));
+
+        Assertions.assertThrows(BadCredentialsException.class, () ->
+                provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("username", "wrongPassword")));
+        Mockito.verify(delegate, Mockito.times(2)).authenticate(Mockito.any());
+    }
+
+    @Test
+    void authenticate_whenDelegateFails_shouldNotCacheCredentials() {
+        Mockito.when(delegate.authenticate(Mockito.any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        Assertions.assertThrows(BadCredentialsException.class, () ->
+                provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("username", "password")));
+
+        Assertions.assertNull(cache.get("username", "password"));
+    }
+
+    @Test
+    void authenticate_whenUserWasUpdated_shouldCallDelegateAgain() {
+        User user = new User(1L, "username", "password", "firstName", "lastName", "email@email.com");
+        Mockito.when(delegate.authenticate(Mockito.any())).thenReturn(authenticated("username"));
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("username", "password"));
+        cache.onUserChanged(new UserChangedEvent(user, user));
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("username", "password"));
+
+        Mockito.verify(delegate, Mockito.times(2)).authenticate(Mockito.any());
+    }
+
+    @Test
+    void authenticate_whenUserWasDeleted_shouldCallDelegateAgain() {
+        User user = new User(1L, "username", "password", "firstName", "lastName", "email@email.com");
+        Mockito.when(delegate.authenticate(Mockito.any())).thenReturn(authenticated("username"));
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("username", "password"));
+        cache.onUserChanged(new UserChangedEvent(user, null));
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("username", "password"));
+
+        Mockito.verify(delegate, Mockito.times(2)).authenticate(Mockito.any());
+    }
+}
@@ -0,0 +1,76 @@
+package x0j3m.virtualwardrobe.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+public class CostAwareBCryptPasswordEncoderTests {
+    private static PasswordEncoder delegating(CostAwareBCryptPasswordEncoder bcrypt) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    @Test
+    void upgradeEncoding_whenStoredCostIsLower_shouldReturnTrue() {
+        String stored = new BCryptPasswordEncoder(4).encode("password");
+
+        Assertions.assertTrue(new CostAwareBCryptPasswordEncoder(5).upgradeEncoding(stored));
+    }
+
+    @Test
+    void upgradeEncoding_whenStoredCostIsHigher_shouldReturnTrue() {
+        String stored = new BCryptPasswordEncoder(5).encode("password");
+
+        Assertions.assertTrue(new CostAwareBCryptPasswordEncoder(4).upgradeEncoding(stored));
+    }
+
+    @Test
+    void upgradeEncoding_whenStoredCostIsEqual_shouldReturnFalse() {
+        String stored = new BCryptPasswordEncoder(4).encode("password");
+
+        Assertions.assertFalse(new CostAwareBCryptPasswordEncoder(4).upgradeEncoding(stored));
+    }
+
+    @Test
+    void upgradeEncoding_whenHashIsMalformed_shouldReturnFalse() {
+        Assertions.assertFalse(new CostAwareBCryptPasswordEncoder(4).upgradeEncoding("password"));
+        Assertions.assertFalse(new CostAwareBCryptPasswordEncoder(4).upgradeEncoding(null));
+    }
+
+    @Test
+    void matches_whenHashHasNoPrefix_shouldMatchAndRequestUpgrade() {
+        String legacy = new BCryptPasswordEncoder(4).encode("password");
+        PasswordEncoder encoder = delegating(new CostAwareBCryptPasswordEncoder(4));
+
+        Assertions.assertTrue(encoder.matches("password", legacy));
+        Assertions.assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void encode_whenDelegating_shouldProducePrefixedHashThatNeedsNoUpgrade() {
+        PasswordEncoder encoder = delegating(new CostAwareBCryptPasswordEncoder(4));
+
+        String encoded = encoder.encode("password");
+
+        Assertions.assertTrue(encoded.startsWith("{bcrypt}$2a$04$"));
+        Assertions.assertTrue(encoder.matches("password", encoded));
+        Assertions.assertFalse(encoder.upgradeEncoding(encoded));
+    }
+
+    @Test
+    void calibrate_whenTargetIsTiny_shouldReturnMinimumStrength() {
+        Assertions.assertEquals(4, BCryptCostCalibrator.calibrate(Duration.ofNanos(1), 4, 6));
+    }
+
+    @Test
+    void calibrate_whenBoundsAreInvalid_shouldThrowIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BCryptCostCalibrator.calibrate(Duration.ofMillis(250), 12, 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BCryptCostCalibrator.calibrate(Duration.ZERO, 4, 10));
+    }
+}
@@ -0,0 +1,66 @@
+package x0j3m.virtualwardrobe.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PasswordHashingExecutorTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void execute_whenCapacityIsAvailable_shouldReturnTaskResult() {
+        Assertions.assertEquals("hash", executor.execute(() -> "hash"));
+        Assertions.assertEquals(1, meterRegistry.get("security.hashing.time").timer().count());
+        Assertions.assertEquals(1, meterRegistry.get("security.hashing.queue.wait").timer().count());
+    }
+
+    @Test
+    void execute_whenTaskThrows_shouldRethrowSameException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> executor.execute(() -> {
+            throw new IllegalArgumentException("Password cannot be null");
+        }));
+    }
+
+    @Test
+    void execute_whenWorkerAndQueueAreBusy_shouldRejectImmediately() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+            return "first";
+        }));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.execute(() -> "second"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("security.hashing.queue.size").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+
+        Assertions.assertThrows(PasswordHashingRejectedException.class, () -> executor.execute(() -> "third"));
+        Assertions.assertEquals(1, meterRegistry.get("security.hashing.rejected").counter().count());
+
+        release.countDown();
+        Assertions.assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
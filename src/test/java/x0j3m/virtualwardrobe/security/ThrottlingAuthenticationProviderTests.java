@@ -0,0 +1,192 @@
+package x0j3m.virtualwardrobe.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@ExtendWith(MockitoExtension.class)
+public class ThrottlingAuthenticationProviderTests {
+    @Mock
+    private AuthenticationProvider delegate;
+
+    private final AtomicLong now = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private ThrottlingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        LoginThrottle throttle = new LoginThrottle(3, 5, Duration.ofSeconds(10), meterRegistry, now::get);
+        provider = new ThrottlingAuthenticationProvider(delegate, throttle);
+    }
+
+    private static Authentication attempt(String username) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, "password");
+    }
+
+    private static Authentication attempt(String username, String address) {
+        UsernamePasswordAuthenticationToken attempt = UsernamePasswordAuthenticationToken.unauthenticated(username, "password");
+        attempt.setDetails(new WebAuthenticationDetails(address, null));
+        return attempt;
+    }
+
+    private void failTimes(String username, int times) {
+        for (int i = 0; i < times; i++) {
+            Assertions.assertThrows(BadCredentialsException.class, () -> provider.authenticate(attempt(username)));
+        }
+    }
+
+    @Test
+    void authenticate_whenBurstIsExhausted_shouldRejectWithoutCallingDelegate() {
+        Mockito.when(delegate.authenticate(Mockito.any())).thenThrow(new BadCredentialsException("Bad credentials"));
+        failTimes("username", 3);
+
+        LoginThrottledException exception = Assertions.assertThrows(LoginThrottledException.class,
+                () -> provider.authenticate(attempt("username")));
+
+        Assertions.assertEquals(Duration.ofSeconds(10), exception.getRetryAfter());
+        Assertions.assertEquals(1.0, meterRegistry.get("security.login.throttled").counter().count());
+        Mockito.verify(delegate, Mockito.times(3)).authenticate(Mockito.any());
+    }
+
+    @Test
+    void authenticate_whenRefillPeriodHasPassed_shouldCallDelegateAgain() {
+        Mockito.when(delegate.authenticate(Mockito.any())).thenThrow(new BadCredentialsException("Bad credentials"));
+        failTimes("username", 3);
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        failTimes("username", 1);
+        Assertions.assertThrows(LoginThrottledException.class, () -> provider.authenticate(attempt("username")));
+    }
+
+    @Test
+    void authenticate_whenOtherUserIsThrottled_shouldCallDelegate() {
+        Mockito.when(delegate.authenticate(Mockito.any())).thenThrow(new BadCredentialsException("Bad credentials"));
+        failTimes("username", 3);
+
+        failTimes("otherUsername", 1);
+    }
+
+    @Test
+    void authenticate_whenLoginSucceeds_shouldResetBucket() {
+        Mockito.when(delegate.authenticate(Mockito.any()))
+                .thenThrow(new BadCredentialsException("Bad credentials"))
+                .thenThrow(new BadCredentialsException("Bad credentials"))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated("username", null,
+                        List.of(new SimpleGrantedAuthority("USER"))))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+        failTimes("username", 2);
+        provider.authenticate(attempt("username"));
+
+        failTimes("username", 3);
+        Mockito.verify(delegate, Mockito.times(6)).authenticate(Mockito.any());
+    }
+
+    @Test
+    void authenticate_whenUsernamesRotateFromOneAddress_shouldRejectOnceAddressBurstIsExhausted() {
+        Mockito.when(delegate.authenticate(Mockito.any())).thenThrow(new BadCredentialsException("Bad credentials"));
+        for (int i = 0; i < 5; i++) {
+            String username = "username" + i;
+            Assertions.assertThrows(BadCredentialsException.class, () -> provider.authenticate(attempt(username, "10.0.0.1")));
+        }
+
+        Assertions.assertThrows(LoginThrottledException.class, () -> provider.authenticate(attempt("username5", "10.0.0.1")));
+        Assertions.assertThrows(BadCredentialsException.class, () -> provider.authenticate(attempt("username5", "10.0.0.2")));
+        Mockito.verify(delegate, Mockito.times(6)).authenticate(Mockito.any());
+    }
+
+    @Test
+    void authenticate_whenLoginSucceeds_shouldNotResetAddressBucket() {
+        Mockito.when(delegate.authenticate(Mockito.any()))
+                .thenThrow(new BadCredentialsException("Bad credentials"))
+                .thenThrow(new BadCredentialsException("Bad credentials"))
+                .thenThrow(new BadCredentialsException("Bad credentials"))
+                .thenThrow(new BadCredentialsException("Bad credentials"))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated("valid", null,
+                        List.of(new SimpleGrantedAuthority("USER"))))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+        for (int i = 0; i < 4; i++) {
+            String username = "username" + i;
+            Assertions.assertThrows(BadCredentialsException.class, () -> provider.authenticate(attempt(username, "10.0.0.1")));
+        }
+        provider.authenticate(attempt("valid", "10.0.0.1"));
+        Assertions.assertThrows(BadCredentialsException.class, () -> provider.authenticate(attempt("username4", "10.0.0.1")));
+
+        Assertions.assertThrows(LoginThrottledException.class, () -> provider.authenticate(attempt("username5", "10.0.0.1")));
+    }
+
+    @Test
+    void authenticate_whenAttemptsRunConcurrently_shouldCallDelegateAtMostBurstTimes() throws Exception {
+        AtomicInteger verifying = new AtomicInteger();
+        AtomicInteger throttled = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(delegate.authenticate(Mockito.any())).thenAnswer(invocation -> {
+            verifying.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            throw new BadCredentialsException("Bad credentials");
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(7);
+
+        try {
+            List<Future<?>> attempts = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                attempts.add(executor.submit(() -> {
+                    try {
+                        return provider.authenticate(attempt("username", "10.0.0.1"));
+                    } catch (LoginThrottledException e) {
+                        throttled.incrementAndGet();
+                        throw e;
+                    }
+                }));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (verifying.get() + throttled.get() < 7 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<?> attempt : attempts) {
+                Assertions.assertThrows(ExecutionException.class, () -> attempt.get(5, TimeUnit.SECONDS));
+            }
+
+            Assertions.assertEquals(4, throttled.get());
+            Mockito.verify(delegate, Mockito.times(3)).authenticate(Mockito.any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void authenticate_whenDelegateFailsWithoutCheckingPassword_shouldGiveAttemptBack() {
+        Mockito.when(delegate.authenticate(Mockito.any())).thenThrow(new IllegalStateException("Database is down"));
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertThrows(IllegalStateException.class, () -> provider.authenticate(attempt("username")));
+        }
+
+        Mockito.verify(delegate, Mockito.times(5)).authenticate(Mockito.any());
+    }
+}
@@ -0,0 +1,149 @@
+package x0j3m.virtualwardrobe.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import x0j3m.virtualwardrobe.model.Role;
+import x0j3m.virtualwardrobe.model.User;
+import x0j3m.virtualwardrobe.service.UserChangedEvent;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+public class TokenServiceTests {
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private static TokenService tokenServiceAt(Instant instant) {
+        return new TokenService(SECRET, Duration.ofMinutes(15), Duration.ofHours(24), Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    private static User user() {
+        return new User(1L, "username", "password", "firstName", "lastName", "email@email.com", Role.USER);
+    }
+
+    @Test
+    void verify_whenTokenIsValid_shouldReturnClaims() {
+        TokenService tokenService = tokenServiceAt(NOW);
+
+        TokenService.Token token = tokenService.issue(user());
+        TokenService.TokenClaims claims = tokenService.verify(token.value());
+
+        Assertions.assertEquals(1L, claims.userId());
+        Assertions.assertEquals("username", claims.username());
+        Assertions.assertEquals(Role.USER, claims.role());
+        Assertions.assertEquals(NOW.plus(Duration.ofMinutes(15)), token.expiresAt());
+    }
+
+    @Test
+    void verify_whenUsernameContainsSeparator_shouldReturnClaims() {
+        TokenService tokenService = tokenServiceAt(NOW);
+        User user = user();
+        user.setUsername("user:name");
+
+        TokenService.TokenClaims claims = tokenService.verify(tokenService.issue(user).value());
+
+        Assertions.assertEquals("user:name", claims.username());
+    }
+
+    @Test
+    void verify_whenSignatureIsTampered_shouldThrowBadCredentialsException() {
+        TokenService tokenService = tokenServiceAt(NOW);
+        String token = tokenService.issue(user()).value();
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        Assertions.assertThrows(BadCredentialsException.class, () -> tokenService.verify(tampered));
+    }
+
+    @Test
+    void verify_whenTokenIsMalformed_shouldThrowBadCredentialsException() {
+        TokenService tokenService = tokenServiceAt(NOW);
+
+        Assertions.assertThrows(BadCredentialsException.class, () -> tokenService.verify("notAToken"));
+        Assertions.assertThrows(BadCredentialsException.class, () -> tokenService.verify("not.a.token"));
+        Assertions.assertThrows(BadCredentialsException.class, () -> tokenService.verify(null));
+    }
+
+    @Test
+    void verify_whenSignedWithAnotherSecret_shouldThrowBadCredentialsException() {
+        String token = tokenServiceAt(NOW).issue(user()).value();
+        TokenService other = new TokenService("fedcba9876543210fedcba9876543210", Duration.ofMinutes(15),
+                Duration.ofHours(24), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        Assertions.assertThrows(BadCredentialsException.class, () -> other.verify(token));
+    }
+
+    @Test
+    void verify_whenTokenIsExpired_shouldThrowCredentialsExpiredException() {
+        String token = tokenServiceAt(NOW).issue(user()).value();
+
+        Assertions.assertThrows(CredentialsExpiredException.class,
+                () -> tokenServiceAt(NOW.plus(Duration.ofMinutes(15))).verify(token));
+    }
+
+    @Test
+    void verify_whenTokensAreRevoked_shouldThrowBadCredentialsException() {
+        TokenService tokenService = tokenServiceAt(NOW);
+        String token = tokenService.issue(user()).value();
+
+        tokenService.revoke(1L);
+
+        Assertions.assertThrows(BadCredentialsException.class, () -> tokenService.verify(token));
+    }
+
+    @Test
+    void verify_whenPasswordWasChanged_shouldThrowBadCredentialsException() {
+        TokenService tokenService = tokenServiceAt(NOW);
+        User user = user();
+        String token = tokenService.issue(user).value();
+        User updated = User.merge(user, User.builder().password("newPassword").build());
+
+        tokenService.onUserChanged(new UserChangedEvent(user, updated));
+
+        Assertions.assertThrows(BadCredentialsException.class, () -> tokenService.verify(token));
+    }
+
+    @Test
+    void verify_whenOnlyNameWasChanged_shouldReturnClaims() {
+        TokenService tokenService = tokenServiceAt(NOW);
+        User user = user();
+        String token = tokenService.issue(user).value();
+        User updated = User.merge(user, User.builder().firstName("newFirstName").build());
+
+        tokenService.onUserChanged(new UserChangedEvent(user, updated));
+
+        Assertions.assertDoesNotThrow(() -> tokenService.verify(token));
+    }
+
+    @Test
+    void refresh_whenTokenIsValid_shouldReturnTokenWithNewExpiry() {
+        String token = tokenServiceAt(NOW).issue(user()).value();
+        Instant later = NOW.plus(Duration.ofMinutes(10));
+
+        TokenService.Token refreshed = tokenServiceAt(later).refresh(token);
+
+        Assertions.assertEquals(later.plus(Duration.ofMinutes(15)), refreshed.expiresAt());
+    }
+
+    @Test
+    void refresh_whenMaxAgeIsExceeded_shouldThrowCredentialsExpiredException() {
+        TokenService tokenService = tokenServiceAt(NOW);
+        String token = tokenService.issue(user()).value();
+        for (int i = 1; i < 24 * 6; i++) {
+            token = tokenServiceAt(NOW.plus(Duration.ofMinutes(10L * i))).refresh(token).value();
+        }
+        String lastToken = token;
+
+        Assertions.assertThrows(CredentialsExpiredException.class,
+                () -> tokenServiceAt(NOW.plus(Duration.ofHours(24)).plusSeconds(1)).refresh(lastToken));
+    }
+
+    @Test
+    void constructor_whenSecretIsTooShort_shouldThrowIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TokenService("short", Duration.ofMinutes(15), Duration.ofHours(24), Clock.systemUTC()));
+    }
+}
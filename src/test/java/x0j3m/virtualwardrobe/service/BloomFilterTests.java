@@ -0,0 +1,54 @@
+package x0j3m.virtualwardrobe.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTests {
+    @Test
+    void mightContain_whenValueWasPut_shouldReturnTrue() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            Assertions.assertTrue(filter.mightContain("user" + i));
+        }
+    }
+
+    @Test
+    void mightContain_whenValueWasNotPut_shouldReturnFalseAtConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+
+        Assertions.assertTrue(falsePositives < 2_000, "False positives: " + falsePositives);
+        Assertions.assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void isSaturated_whenExpectedInsertionsAreExceeded_shouldReturnTrue() {
+        BloomFilter filter = new BloomFilter(2, 0.01);
+        filter.put("a");
+        filter.put("b");
+
+        Assertions.assertFalse(filter.isSaturated());
+        filter.put("c");
+        Assertions.assertTrue(filter.isSaturated());
+    }
+
+    @Test
+    void constructor_whenArgumentsAreInvalid_shouldThrowIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+    }
+}
@@ -0,0 +1,63 @@
+package x0j3m.virtualwardrobe.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import x0j3m.virtualwardrobe.model.Clothes;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.Color;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogResolverTests {
+    @Mock
+    private ColorService colorService;
+    @Mock
+    private ClothesTypeService clothesTypeService;
+
+    @InjectMocks
+    private CatalogResolver catalogResolver;
+
+    @Test
+    void resolve_whenBothExist_shouldLookUpEachOnce() {
+        Color color = new Color(1L, "testColor");
+        ClothesType type = new ClothesType(2L, "testType", ClothesLayer.BASE_LAYER);
+        Mockito.when(colorService.getColor(1L)).thenReturn(color);
+        Mockito.when(clothesTypeService.getClothesType(2L)).thenReturn(type);
+
+        Clothes resolved = catalogResolver.resolve(1L, 2L);
+
+        Assertions.assertSame(color, resolved.getColor());
+        Assertions.assertSame(type, resolved.getType());
+        Mockito.verify(colorService).getColor(1L);
+        Mockito.verify(clothesTypeService).getClothesType(2L);
+    }
+
+    @Test
+    void resolve_whenIdsAreNull_shouldNotLookUpAnything() {
+        Clothes resolved = catalogResolver.resolve(null, null);
+
+        Assertions.assertNull(resolved.getColor());
+        Assertions.assertNull(resolved.getType());
+        Mockito.verifyNoInteractions(colorService, clothesTypeService);
+    }
+
+    @Test
+    void resolve_whenColorDoesNotExist_shouldThrowIllegalArgumentException() {
+        Mockito.when(colorService.getColor(999L)).thenReturn(null);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> catalogResolver.resolve(999L, 1L));
+        Mockito.verifyNoInteractions(clothesTypeService);
+    }
+
+    @Test
+    void resolve_whenClothesTypeDoesNotExist_shouldThrowIllegalArgumentException() {
+        Mockito.when(clothesTypeService.getClothesType(999L)).thenReturn(null);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> catalogResolver.resolve(null, 999L));
+    }
+}
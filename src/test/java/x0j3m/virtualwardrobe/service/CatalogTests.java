@@ -0,0 +1,60 @@
+package x0j3m.virtualwardrobe.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import x0j3m.virtualwardrobe.model.Color;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CatalogTests {
+    private final AtomicLong now = new AtomicLong();
+    private final List<Color> table = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private Catalog<Color> catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new Catalog<>(Color::getId, Color::getName, Duration.ofSeconds(60), now::get);
+        table.add(new Color(1L, "black"));
+        catalog.load(() -> {
+            loads.incrementAndGet();
+            return List.copyOf(table);
+        });
+    }
+
+    @Test
+    void getById_whenSnapshotIsFresh_shouldTrustMissesWithoutLoading() {
+        table.add(new Color(2L, "white"));
+        now.addAndGet(Duration.ofSeconds(59).toNanos());
+
+        Assertions.assertNull(catalog.getById(2L, id -> Assertions.fail("Should not query")));
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getById_whenSnapshotIsOlderThanMaxStaleness_shouldReloadTable() {
+        table.clear();
+        table.add(new Color(2L, "white"));
+        now.addAndGet(Duration.ofSeconds(60).toNanos());
+
+        Assertions.assertEquals("white", catalog.getById(2L, id -> Optional.empty()).getName());
+        Assertions.assertNull(catalog.getById(1L, id -> Optional.empty()));
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getByName_whenCaseDiffers_shouldFindRow() {
+        Assertions.assertEquals(1L, catalog.getByName("Black", name -> Optional.empty()).getId());
+
+        catalog.put(new Color(1L, "Dark"));
+
+        Assertions.assertNull(catalog.getByName("BLACK", name -> Optional.empty()));
+        Assertions.assertEquals(1L, catalog.getByName("dark", name -> Optional.empty()).getId());
+    }
+}
@@ -0,0 +1,101 @@
+package x0j3m.virtualwardrobe.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import x0j3m.virtualwardrobe.data.ClothesRepository;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.Color;
+
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(MockitoExtension.class)
+public class ClothesFacetsTests {
+    @Mock
+    private ClothesRepository clothesRepository;
+    @Mock
+    private ColorService colorService;
+    @Mock
+    private ClothesTypeService clothesTypeService;
+
+    @InjectMocks
+    private ClothesFacets clothesFacets;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.lenient().when(colorService.getColor(1L)).thenReturn(new Color(1L, "black"));
+        Mockito.lenient().when(colorService.getColor(2L)).thenReturn(new Color(2L, "white"));
+        Mockito.lenient().when(clothesTypeService.getClothesType(1L)).thenReturn(new ClothesType(1L, "shirt", ClothesLayer.BASE_LAYER));
+        Mockito.lenient().when(clothesTypeService.getClothesType(2L)).thenReturn(new ClothesType(2L, "vest", ClothesLayer.BASE_LAYER));
+        Mockito.lenient().when(clothesTypeService.getClothesType(3L)).thenReturn(new ClothesType(3L, "coat", ClothesLayer.OUTER_LAYER));
+    }
+
+    @Test
+    void getFacets_whenLoaded_shouldNotQueryAgain() {
+        Mockito.when(clothesRepository.countByColorAndType()).thenReturn(List.of(count(1L, 1L, 3), count(2L, 3L, 2)));
+        clothesFacets.afterSingletonsInstantiated();
+
+        clothesFacets.getFacets();
+        ClothesFacets.Facets facets = clothesFacets.getFacets();
+
+        Assertions.assertEquals(List.of(new ClothesFacets.Facet(1L, "black", 3), new ClothesFacets.Facet(2L, "white", 2)),
+                facets.colors());
+        Assertions.assertEquals(Map.of(ClothesLayer.BASE_LAYER, 3L, ClothesLayer.OUTER_LAYER, 2L), facets.layers());
+        Mockito.verify(clothesRepository, Mockito.times(1)).countByColorAndType();
+    }
+
+    @Test
+    void getFacets_whenClothesAreAddedAndRemoved_shouldAdjustCounts() {
+        Mockito.when(clothesRepository.countByColorAndType()).thenReturn(List.of(count(1L, 1L, 1)));
+        clothesFacets.afterSingletonsInstantiated();
+
+        clothesFacets.added(1L, 2L);
+        clothesFacets.added(2L, 3L);
+        clothesFacets.removed(1L, 1L);
+        ClothesFacets.Facets facets = clothesFacets.getFacets();
+
+        Assertions.assertEquals(List.of(new ClothesFacets.Facet(1L, "black", 1), new ClothesFacets.Facet(2L, "white", 1)),
+                facets.colors());
+        Assertions.assertEquals(List.of(new ClothesFacets.Facet(2L, "vest", 1), new ClothesFacets.Facet(3L, "coat", 1)),
+                facets.types());
+        Assertions.assertEquals(Map.of(ClothesLayer.BASE_LAYER, 1L, ClothesLayer.OUTER_LAYER, 1L), facets.layers());
+    }
+
+    @Test
+    void getFacets_whenNotLoaded_shouldQueryEveryTime() {
+        Mockito.when(clothesRepository.countByColorAndType()).thenReturn(List.of(count(1L, 1L, 4)));
+
+        clothesFacets.added(1L, 1L);
+        ClothesFacets.Facets facets = clothesFacets.getFacets();
+        clothesFacets.getFacets();
+
+        Assertions.assertEquals(List.of(new ClothesFacets.Facet(1L, "shirt", 4)), facets.types());
+        Mockito.verify(clothesRepository, Mockito.times(2)).countByColorAndType();
+    }
+
+    private static ClothesRepository.ColorAndTypeCount count(Long colorId, Long typeId, long count) {
+        return new ClothesRepository.ColorAndTypeCount() {
+            @Override
+            public Long getColorId() {
+                return colorId;
+            }
+
+            @Override
+            public Long getTypeId() {
+                return typeId;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,194 @@
+package x0j3m.virtualwardrobe.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+import x0j3m.virtualwardrobe.data.ClothesRepository;
+import x0j3m.virtualwardrobe.model.Clothes;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.Color;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@ExtendWith(MockitoExtension.class)
+public class ClothesImporterTests {
+    @Mock
+    private ClothesService clothesService;
+    @Mock
+    private ColorService colorService;
+    @Mock
+    private ClothesTypeService clothesTypeService;
+    @Mock
+    private ClothesRepository clothesRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private EntityManager entityManager;
+
+    private final Color black = new Color(1L, "black");
+    private final ClothesType shirt = new ClothesType(1L, "shirt", ClothesLayer.BASE_LAYER);
+
+    private ClothesImporter clothesImporter;
+
+    @BeforeEach
+    void setUp() {
+        clothesImporter = new ClothesImporter(clothesService, colorService, clothesTypeService, clothesRepository,
+                transactionTemplate, entityManager, new ObjectMapper(), 2, 1, 64);
+    }
+
+    @Test
+    void importClothes_whenNdjsonIsValid_shouldInsertInChunks() throws Exception {
+        runTransactions();
+        Mockito.when(colorService.getColor("black")).thenReturn(black);
+        Mockito.when(clothesTypeService.getClothesType("shirt")).thenReturn(shirt);
+        List<Integer> chunkSizes = new ArrayList<>();
+        Mockito.when(clothesRepository.saveAll(Mockito.anyIterable())).thenAnswer(invocation -> {
+            Iterable<Clothes> chunk = invocation.getArgument(0);
+            chunkSizes.add(((List<Clothes>) chunk).size());
+            return chunk;
+        });
+        String document = """
+                {"color":"black","type":"shirt"}
+                {"color":"black","type":"shirt"}
+
+                {"color":"black","type":"shirt"}
+                """;
+
+        ClothesImporter.ImportReport report = clothesImporter.importClothes(
+                new StringReader(document), ClothesImporter.Format.NDJSON);
+
+        Assertions.assertEquals(4, report.lines());
+        Assertions.assertEquals(3, report.imported());
+        Assertions.assertEquals(0, report.failed());
+        Assertions.assertEquals(List.of(2, 1), chunkSizes);
+        Mockito.verify(entityManager, Mockito.times(2)).clear();
+        Mockito.verify(clothesService, Mockito.times(2)).clothesSaved(Mockito.anyList());
+    }
+
+    @Test
+    void importClothes_whenLinesAreInvalid_shouldSkipThemAndReportErrors() throws Exception {
+        runTransactions();
+        Mockito.when(colorService.getColor("black")).thenReturn(black);
+        Mockito.when(colorService.getColor("mauve")).thenReturn(null);
+        Mockito.when(clothesTypeService.getClothesType("shirt")).thenReturn(shirt);
+        String document = """
+                {"color":"mauve","type":"shirt"}
+                not json
+                {"color":"black"}
+                {"color":"black","type":"shirt"}
+                """;
+
+        ClothesImporter.ImportReport report = clothesImporter.importClothes(
+                new StringReader(document), ClothesImporter.Format.NDJSON);
+
+        Assertions.assertEquals(1, report.imported());
+        Assertions.assertEquals(3, report.failed());
+        Assertions.assertEquals(List.of(new ClothesImporter.LineError(1, "Color mauve does not exist")), report.errors());
+    }
+
+    @Test
+    void importClothes_whenCsvHasHeader_shouldMapColumnsByName() throws Exception {
+        runTransactions();
+        Color navy = new Color(2L, "navy, dark");
+        Mockito.when(colorService.getColor("navy, dark")).thenReturn(navy);
+        Mockito.when(clothesTypeService.getClothesType("shirt")).thenReturn(shirt);
+        List<Clothes> saved = new ArrayList<>();
+        Mockito.when(clothesRepository.saveAll(Mockito.anyIterable())).thenAnswer(invocation -> {
+            Iterable<Clothes> chunk = invocation.getArgument(0);
+            chunk.forEach(saved::add);
+            return chunk;
+        });
+        String document = """
+                type,color
+                shirt,"navy, dark"
+                """;
+
+        ClothesImporter.ImportReport report = clothesImporter.importClothes(
+                new StringReader(document), ClothesImporter.Format.CSV);
+
+        Assertions.assertEquals(1, report.imported());
+        Assertions.assertSame(navy, saved.get(0).getColor());
+        Assertions.assertSame(shirt, saved.get(0).getType());
+    }
+
+    @Test
+    void importClothes_whenCsvHeaderHasNoTypeColumn_shouldThrowIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> clothesImporter.importClothes(
+                new StringReader("color,size\nblack,M\n"), ClothesImporter.Format.CSV));
+        Mockito.verifyNoInteractions(clothesRepository);
+    }
+
+    @Test
+    void importClothes_whenChunkViolatesConstraint_shouldRetryRowsAndReportOnlyFailingLine() throws Exception {
+        runTransactions();
+        ClothesType deleted = new ClothesType(2L, "deleted", ClothesLayer.BASE_LAYER);
+        Mockito.when(colorService.getColor("black")).thenReturn(black);
+        Mockito.when(clothesTypeService.getClothesType("shirt")).thenReturn(shirt);
+        Mockito.when(clothesTypeService.getClothesType("deleted")).thenReturn(deleted);
+        Mockito.when(clothesRepository.saveAll(Mockito.anyIterable()))
+                .thenThrow(new DataIntegrityViolationException("fk"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(clothesRepository.save(Mockito.any(Clothes.class))).thenAnswer(invocation -> {
+            Clothes clothes = invocation.getArgument(0);
+            if (clothes.getType() == deleted) {
+                throw new DataIntegrityViolationException("fk");
+            }
+            return clothes;
+        });
+        String document = """
+                {"color":"black","type":"deleted"}
+                {"color":"black","type":"shirt"}
+                {"color":"black","type":"shirt"}
+                """;
+
+        ClothesImporter.ImportReport report = clothesImporter.importClothes(
+                new StringReader(document), ClothesImporter.Format.NDJSON);
+
+        Assertions.assertEquals(2, report.imported());
+        Assertions.assertEquals(1, report.failed());
+        Assertions.assertEquals(List.of(new ClothesImporter.LineError(1, "Color or type does not exist")), report.errors());
+        Mockito.verify(clothesService, Mockito.times(2)).clothesSaved(Mockito.anyList());
+    }
+
+    @Test
+    void importClothes_whenLineIsTooLong_shouldReportItWithoutKeepingIt() throws Exception {
+        runTransactions();
+        Mockito.when(colorService.getColor("black")).thenReturn(black);
+        Mockito.when(clothesTypeService.getClothesType("shirt")).thenReturn(shirt);
+        Mockito.when(clothesRepository.saveAll(Mockito.anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+        String document = "{\"color\":\"" + "x".repeat(100_000) + "\"}\r\n{\"color\":\"black\",\"type\":\"shirt\"}\r\n";
+
+        ClothesImporter.ImportReport report = clothesImporter.importClothes(
+                new StringReader(document), ClothesImporter.Format.NDJSON);
+
+        Assertions.assertEquals(2, report.lines());
+        Assertions.assertEquals(1, report.imported());
+        Assertions.assertEquals(List.of(new ClothesImporter.LineError(1, "Line is longer than 64 characters")), report.errors());
+    }
+
+    @Test
+    void format_whenMediaTypeIsNotSupported_shouldThrowIllegalArgumentException() {
+        Assertions.assertEquals(ClothesImporter.Format.CSV, ClothesImporter.Format.of("text/csv;charset=UTF-8"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ClothesImporter.Format.of("application/json"));
+    }
+
+    private void runTransactions() {
+        Mockito.doAnswer(invocation -> {
+            Consumer<Object> callback = invocation.getArgument(0);
+            callback.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(Mockito.any());
+    }
+}
@@ -1,26 +1,42 @@
 package x0j3m.virtualwardrobe.service;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import x0j3m.virtualwardrobe.data.ClothesRepository;
+import x0j3m.virtualwardrobe.data.ClothesSearch;
+import x0j3m.virtualwardrobe.data.TableStatistics;
 import x0j3m.virtualwardrobe.model.Clothes;
 import x0j3m.virtualwardrobe.model.ClothesLayer;
 import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.ClothesTypeView;
+import x0j3m.virtualwardrobe.model.ClothesView;
 import x0j3m.virtualwardrobe.model.Color;
+import x0j3m.virtualwardrobe.model.ColorView;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,23 +47,35 @@ public class ClothesServiceTests {
     private ColorService colorService;
     @Mock
     private ClothesTypeService clothesTypeService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private TableStatistics tableStatistics;
+    @Mock
+    private ClothesFacets clothesFacets;
 
-    @InjectMocks
     private ClothesService clothesService;
 
+    @BeforeEach
+    void setUp() {
+        clothesService = new ClothesService(clothesRepository, colorService, clothesTypeService, transactionTemplate,
+                tableStatistics, clothesFacets, 3, 2);
+    }
+
     @Test
     void saveClothes_whenClothesDoesNotExistAndParametersAreValid_shouldReturnSavedClothesId() {
         Color color = new Color(1L, "testColor");
         ClothesType type = new ClothesType(1L, "testName", ClothesLayer.BASE_LAYER);
         Clothes clothes = new Clothes(1L, color, type);
-        Mockito.when(colorService.getColor(Mockito.any(Long.class))).thenReturn(color);
-        Mockito.when(clothesTypeService.getClothesType(Mockito.any(Long.class))).thenReturn(type);
-        Mockito.when(clothesRepository.save(Mockito.any())).thenReturn(clothes);
+        Mockito.when(colorService.getColorReference(Mockito.any(Long.class))).thenReturn(color);
+        Mockito.when(clothesTypeService.getClothesTypeReference(Mockito.any(Long.class))).thenReturn(type);
+        Mockito.when(clothesRepository.saveAndFlush(Mockito.any())).thenReturn(clothes);
 
         Long savedClothesId = clothesService.saveClothes(color.getId(), type.getId());
 
         Assertions.assertNotNull(savedClothesId);
         Assertions.assertEquals(clothes.getId(), savedClothesId);
+        Mockito.verify(clothesFacets).added(1L, 1L);
     }
 
     @Test
@@ -90,19 +118,28 @@ public class ClothesServiceTests {
         Assertions.assertThrows(IllegalArgumentException.class, () -> clothesService.saveClothes(1L, 999L));
     }
 
+    @Test
+    void saveClothes_whenForeignKeyIsViolated_shouldThrowIllegalArgumentException() {
+        Mockito.when(colorService.getColorReference(999L)).thenReturn(new Color(999L, null));
+        Mockito.when(clothesTypeService.getClothesTypeReference(1L)).thenReturn(new ClothesType(1L, null, null));
+        Mockito.when(clothesRepository.saveAndFlush(Mockito.any())).thenThrow(new DataIntegrityViolationException("FK"));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> clothesService.saveClothes(999L, 1L));
+    }
+
     @Test
     void getClothes_whenClothesIdExists_shouldReturnClothes() {
         Color color = new Color(1L, "testColor");
         ClothesType type = new ClothesType(1L, "testName", ClothesLayer.BASE_LAYER);
         Clothes clothes = new Clothes(1L, color, type);
-        Mockito.when(clothesRepository.findById(Mockito.any())).thenReturn(Optional.of(clothes));
+        Mockito.when(clothesRepository.findViewById(Mockito.any())).thenReturn(Optional.of(ClothesView.of(clothes)));
 
-        Clothes found = clothesService.getClothes(clothes.getId());
+        ClothesView found = clothesService.getClothes(clothes.getId());
 
         Assertions.assertNotNull(found);
-        Assertions.assertEquals(clothes.getId(), found.getId());
-        Assertions.assertEquals(clothes.getColor(), found.getColor());
-        Assertions.assertEquals(clothes.getType(), found.getType());
+        Assertions.assertEquals(clothes.getId(), found.id());
+        Assertions.assertEquals(ColorView.of(color), found.color());
+        Assertions.assertEquals(ClothesTypeView.of(type), found.type());
     }
 
     @Test
@@ -122,15 +159,15 @@ public class ClothesServiceTests {
 
     @Test
     void getClothes_whenClothesIdDoesNotExist_shouldReturnNull() {
-        Mockito.when(clothesRepository.findById(Mockito.any())).thenReturn(Optional.empty());
-        Clothes found = clothesService.getClothes(999L);
+        Mockito.when(clothesRepository.findViewById(Mockito.any())).thenReturn(Optional.empty());
+        ClothesView found = clothesService.getClothes(999L);
         Assertions.assertNull(found);
     }
 
     @Test
     void getAllClothes_whenTableIsEmpty_shouldReturnEmpty() {
-        Mockito.when(clothesRepository.findAll(Mockito.any(PageRequest.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
-        Iterable<Clothes> allClothes = clothesService.getAllClothes(0, 999, Sort.unsorted());
+        Mockito.when(clothesRepository.findViewsBy(Mockito.any(Pageable.class))).thenReturn(new SliceImpl<>(Collections.emptyList()));
+        Iterable<ClothesView> allClothes = clothesService.getAllClothes(0, 999, Sort.unsorted());
         Assertions.assertNotNull(allClothes);
         Assertions.assertFalse(allClothes.iterator().hasNext());
     }
@@ -148,17 +185,57 @@ public class ClothesServiceTests {
         Clothes clothes2 = new Clothes(2L, color2, type2);
         Clothes clothes3 = new Clothes(3L, color3, type3);
 
-        List<Clothes> clothesIterable = Arrays.asList(clothes1, clothes2, clothes3);
-        Page<Clothes> page = new PageImpl<>(clothesIterable, PageRequest.of(0, 3), 3);
-        Mockito.when(clothesRepository.findAll(Mockito.any(PageRequest.class))).thenReturn(page);
+        List<ClothesView> clothesIterable = Arrays.asList(ClothesView.of(clothes1), ClothesView.of(clothes2), ClothesView.of(clothes3));
+        Slice<ClothesView> page = new SliceImpl<>(clothesIterable, PageRequest.of(0, 3), false);
+        Mockito.when(clothesRepository.findViewsBy(Mockito.any(Pageable.class))).thenReturn(page);
 
-        Iterable<Clothes> allClothes = clothesService.getAllClothes(0, 999, Sort.unsorted());
+        Iterable<ClothesView> allClothes = clothesService.getAllClothes(0, 999, Sort.unsorted());
 
         Assertions.assertNotNull(allClothes);
         Assertions.assertTrue(allClothes.iterator().hasNext());
         Assertions.assertEquals(3, StreamSupport.stream(allClothes.spliterator(), false).count());
     }
 
+    @Test
+    void getAllClothes_shouldNotCountRows() {
+        Mockito.when(clothesRepository.findViewsBy(Mockito.any(Pageable.class))).thenReturn(new SliceImpl<>(Collections.emptyList()));
+
+        clothesService.getAllClothes(0, 20, Sort.unsorted());
+
+        Mockito.verify(clothesRepository, Mockito.never()).count();
+        Mockito.verifyNoInteractions(tableStatistics);
+    }
+
+    @Test
+    void searchClothes_whenNamesExist_shouldFilterByResolvedIds() {
+        Mockito.when(colorService.getColor("testColor")).thenReturn(new Color(4L, "testColor"));
+        Mockito.when(clothesTypeService.getClothesType("testType"))
+                .thenReturn(new ClothesType(7L, "testType", ClothesLayer.ACCESSORY));
+        Mockito.when(clothesRepository.search(Mockito.any(), Mockito.any())).thenReturn(new SliceImpl<>(List.of()));
+
+        clothesService.searchClothes("testColor", "testType", ClothesLayer.ACCESSORY, 1, 20, Sort.unsorted());
+
+        Mockito.verify(clothesRepository).search(new ClothesSearch.Filter(4L, 7L, ClothesLayer.ACCESSORY), PageRequest.of(1, 20));
+    }
+
+    @Test
+    void searchClothes_whenColorDoesNotExist_shouldReturnEmptyWithoutQuerying() {
+        Mockito.when(colorService.getColor("missing")).thenReturn(null);
+
+        Iterable<ClothesView> clothes = clothesService.searchClothes("missing", null, null, 0, 20, Sort.unsorted());
+
+        Assertions.assertFalse(clothes.iterator().hasNext());
+        Mockito.verifyNoInteractions(clothesRepository);
+    }
+
+    @Test
+    void countClothes_shouldUseTableStatisticsForClothesTable() {
+        TableStatistics.Total total = new TableStatistics.Total(250_000, false);
+        Mockito.when(tableStatistics.total(Mockito.eq("clothes"), Mockito.any())).thenReturn(total);
+
+        Assertions.assertEquals(total, clothesService.countClothes());
+    }
+
     @Test
     void getClothesByColor_whenClothesWithGivenColorExists_shouldReturnAllClothesInGivenColor() {
         Color color = new Color(1L, "testColor1");
@@ -248,19 +325,50 @@ public class ClothesServiceTests {
         Color color = new Color(1L, "testColor");
         ClothesType type = new ClothesType(1L, "testName", ClothesLayer.BASE_LAYER);
         Clothes clothes = new Clothes(1L, color, type);
-        Mockito.when(clothesRepository.findById(Mockito.any())).thenReturn(Optional.of(clothes));
+        Mockito.when(clothesRepository.findForUpdateById(Mockito.any())).thenReturn(Optional.of(clothes));
+        Mockito.when(clothesRepository.deleteClothesById(1L)).thenReturn(1);
 
         clothesService.deleteClothes(clothes.getId());
-        Mockito.verify(clothesRepository, Mockito.times(1)).deleteById(Mockito.any());
+        Mockito.verify(clothesRepository, Mockito.times(1)).deleteClothesById(1L);
+        Mockito.verify(clothesFacets).removed(1L, 1L);
     }
 
     @Test
     void deleteClothes_whenClothesIdDoesNotExist_shouldThrowIllegalArgumentException() {
-        Mockito.when(clothesRepository.findById(Mockito.any())).thenReturn(Optional.empty());
+        Mockito.when(clothesRepository.findForUpdateById(Mockito.any())).thenReturn(Optional.empty());
 
         Assertions.assertThrows(IllegalArgumentException.class, () -> clothesService.deleteClothes(999L));
     }
 
+    @Test
+    void deleteClothes_whenNoRowIsDeleted_shouldNotAdjustCounters() {
+        Clothes clothes = new Clothes(1L, new Color(1L, "testColor"), new ClothesType(1L, "testName", ClothesLayer.BASE_LAYER));
+        Mockito.when(clothesRepository.findForUpdateById(1L)).thenReturn(Optional.of(clothes));
+        Mockito.when(clothesRepository.deleteClothesById(1L)).thenReturn(0);
+        long version = clothesService.getVersion();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> clothesService.deleteClothes(1L));
+        Mockito.verifyNoInteractions(clothesFacets);
+        Assertions.assertEquals(version, clothesService.getVersion());
+    }
+
+    @Test
+    void deleteClothes_whenInTransaction_shouldAdjustCountersAfterCommit() {
+        Clothes clothes = new Clothes(1L, new Color(1L, "testColor"), new ClothesType(1L, "testName", ClothesLayer.BASE_LAYER));
+        Mockito.when(clothesRepository.findForUpdateById(1L)).thenReturn(Optional.of(clothes));
+        Mockito.when(clothesRepository.deleteClothesById(1L)).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            clothesService.deleteClothes(1L);
+            Mockito.verifyNoInteractions(clothesFacets);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            Mockito.verify(clothesFacets).removed(1L, 1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void deleteClothes_whenClothesIdIsNull_shouldThrowIllegalArgumentException() {
         Assertions.assertThrows(IllegalArgumentException.class, () -> clothesService.deleteClothes(null));
@@ -298,7 +406,7 @@ public class ClothesServiceTests {
 
     @Test
     void updateClothes_whenClothesWithProvidedIdDoesNotExist_shouldThrowIllegalArgumentException() {
-        Mockito.when(clothesRepository.findById(Mockito.any())).thenReturn(Optional.empty());
+        Mockito.when(clothesRepository.findForUpdateById(Mockito.any())).thenReturn(Optional.empty());
         Assertions.assertThrows(IllegalArgumentException.class, () -> clothesService.updateClothes(999L, new Clothes()));
     }
 
@@ -311,7 +419,7 @@ public class ClothesServiceTests {
         ClothesType updateType = new ClothesType(2L, "newName", ClothesLayer.BASE_LAYER);
         Clothes update = new Clothes(clothes.getId(), updateColor, updateType);
         Clothes updated = new Clothes(clothes.getId(), update.getColor(), update.getType());
-        Mockito.when(clothesRepository.findById(Mockito.any())).thenReturn(Optional.of(clothes));
+        Mockito.when(clothesRepository.findForUpdateById(Mockito.any())).thenReturn(Optional.of(clothes));
         Mockito.when(clothesRepository.save(Mockito.any())).thenReturn(updated);
 
         Clothes updatedClothes = clothesService.updateClothes(clothes.getId(), update);
@@ -320,6 +428,8 @@ public class ClothesServiceTests {
         Assertions.assertEquals(clothes.getId(), updatedClothes.getId());
         Assertions.assertEquals(update.getColor(), updatedClothes.getColor());
         Assertions.assertEquals(update.getType(), updatedClothes.getType());
+        Mockito.verify(clothesFacets).removed(1L, 1L);
+        Mockito.verify(clothesFacets).added(2L, 2L);
     }
 
     @Test
@@ -329,7 +439,7 @@ public class ClothesServiceTests {
         Clothes clothes = new Clothes(1L, color, type);
         Clothes update = new Clothes(clothes.getId(), null, type);
         Clothes updated = new Clothes(clothes.getId(), clothes.getColor(), update.getType());
-        Mockito.when(clothesRepository.findById(Mockito.any())).thenReturn(Optional.of(clothes));
+        Mockito.when(clothesRepository.findForUpdateById(Mockito.any())).thenReturn(Optional.of(clothes));
         Mockito.when(clothesRepository.save(Mockito.any())).thenReturn(updated);
 
         Clothes updatedClothes = clothesService.updateClothes(clothes.getId(), update);
@@ -346,7 +456,7 @@ public class ClothesServiceTests {
         Clothes clothes = new Clothes(1L, color, type);
         Clothes update = new Clothes(clothes.getId(), color, null);
         Clothes updated = new Clothes(clothes.getId(), update.getColor(), clothes.getType());
-        Mockito.when(clothesRepository.findById(Mockito.any())).thenReturn(Optional.of(clothes));
+        Mockito.when(clothesRepository.findForUpdateById(Mockito.any())).thenReturn(Optional.of(clothes));
         Mockito.when(clothesRepository.save(Mockito.any())).thenReturn(updated);
 
         Clothes updatedClothes = clothesService.updateClothes(clothes.getId(), update);
@@ -355,4 +465,111 @@ public class ClothesServiceTests {
         Assertions.assertEquals(update.getColor(), updatedClothes.getColor());
         Assertions.assertEquals(clothes.getType(), updatedClothes.getType());
     }
+
+    @Test
+    void getVersion_whenColorVersionChanges_shouldChange() {
+        Mockito.when(colorService.getVersion()).thenReturn(1L, 2L);
+
+        long before = clothesService.getVersion();
+        long after = clothesService.getVersion();
+
+        Assertions.assertTrue(after > before);
+    }
+
+    @Test
+    void saveAllClothes_whenIdsAreValid_shouldReturnIdsInOrderAndFlushChunksInOneTransaction() {
+        Color color = new Color(1L, "testColor");
+        ClothesType type = new ClothesType(1L, "testName", ClothesLayer.BASE_LAYER);
+        Mockito.when(colorService.getColors(Set.of(1L))).thenReturn(Map.of(1L, color));
+        Mockito.when(clothesTypeService.getClothesTypes(Set.of(1L))).thenReturn(Map.of(1L, type));
+        Mockito.when(transactionTemplate.execute(Mockito.any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        Mockito.when(clothesRepository.saveAll(Mockito.anyList()))
+                .thenReturn(List.of(new Clothes(10L, color, type), new Clothes(11L, color, type)))
+                .thenReturn(List.of(new Clothes(12L, color, type)));
+
+        List<Long> ids = clothesService.saveAllClothes(List.of(
+                new ClothesService.ClothesIds(1L, 1L),
+                new ClothesService.ClothesIds(1L, 1L),
+                new ClothesService.ClothesIds(1L, 1L)
+        ));
+
+        Assertions.assertEquals(List.of(10L, 11L, 12L), ids);
+        Mockito.verify(transactionTemplate, Mockito.times(1)).execute(Mockito.any());
+        Mockito.verify(clothesRepository, Mockito.times(2)).flush();
+        Mockito.verify(clothesFacets, Mockito.times(3)).added(1L, 1L);
+    }
+
+    @Test
+    void saveAllClothes_whenLaterChunkFails_shouldThrowIllegalArgumentExceptionAndCountNothing() {
+        Color color = new Color(1L, "testColor");
+        ClothesType type = new ClothesType(1L, "testName", ClothesLayer.BASE_LAYER);
+        Mockito.when(colorService.getColors(Set.of(1L))).thenReturn(Map.of(1L, color));
+        Mockito.when(clothesTypeService.getClothesTypes(Set.of(1L))).thenReturn(Map.of(1L, type));
+        Mockito.when(transactionTemplate.execute(Mockito.any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        Mockito.when(clothesRepository.saveAll(Mockito.anyList()))
+                .thenReturn(List.of(new Clothes(10L, color, type), new Clothes(11L, color, type)));
+        Mockito.doNothing().doThrow(new DataIntegrityViolationException("constraint")).when(clothesRepository).flush();
+        long version = clothesService.getVersion();
+
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> clothesService.saveAllClothes(Collections.nCopies(3, new ClothesService.ClothesIds(1L, 1L))));
+
+        Assertions.assertTrue(exception.getMessage().contains("no clothes were saved"));
+        Assertions.assertEquals(version, clothesService.getVersion());
+        Mockito.verifyNoInteractions(clothesFacets);
+    }
+
+    @Test
+    void exportClothes_whenClothesExist_shouldPassEveryRowInOneTransaction() {
+        Mockito.when(transactionTemplate.execute(Mockito.any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        ClothesView first = new ClothesView(1L, 1L, "testColor", 1L, "testType", ClothesLayer.ACCESSORY);
+        ClothesView second = new ClothesView(2L, 1L, "testColor", 1L, "testType", ClothesLayer.ACCESSORY);
+        AtomicBoolean closed = new AtomicBoolean();
+        Mockito.when(clothesRepository.streamViewsBy())
+                .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        List<ClothesView> exported = new ArrayList<>();
+
+        long count = clothesService.exportClothes(exported::add);
+
+        Assertions.assertEquals(2, count);
+        Assertions.assertEquals(List.of(first, second), exported);
+        Assertions.assertTrue(closed.get());
+        Mockito.verify(transactionTemplate).execute(Mockito.any());
+    }
+
+    @Test
+    void saveAllClothes_whenColorDoesNotExist_shouldThrowIllegalArgumentExceptionBeforeSaving() {
+        Mockito.when(colorService.getColors(Set.of(1L, 999L))).thenReturn(Map.of(1L, new Color(1L, "testColor")));
+        Mockito.when(clothesTypeService.getClothesTypes(Set.of(1L)))
+                .thenReturn(Map.of(1L, new ClothesType(1L, "testName", ClothesLayer.BASE_LAYER)));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> clothesService.saveAllClothes(List.of(
+                new ClothesService.ClothesIds(1L, 1L),
+                new ClothesService.ClothesIds(999L, 1L)
+        )));
+        Mockito.verify(clothesRepository, Mockito.never()).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    void saveAllClothes_whenTooManyClothesAreGiven_shouldThrowIllegalArgumentException() {
+        List<ClothesService.ClothesIds> items = Collections.nCopies(4, new ClothesService.ClothesIds(1L, 1L));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> clothesService.saveAllClothes(items));
+    }
+
+    @Test
+    void saveAllClothes_whenIdIsNull_shouldThrowIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> clothesService.saveAllClothes(List.of(new ClothesService.ClothesIds(null, 1L))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> clothesService.saveAllClothes(List.of()));
+    }
 }
@@ -1,20 +1,23 @@
 package x0j3m.virtualwardrobe.service;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import x0j3m.virtualwardrobe.data.ClothesTypeRepository;
 import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.ClothesTypeView;
 import x0j3m.virtualwardrobe.model.ClothesLayer;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.StreamSupport;
 
@@ -22,9 +25,13 @@ import java.util.stream.StreamSupport;
 public class ClothesTypeServiceTests {
     @Mock
     private ClothesTypeRepository clothesTypeRepository;
-    @InjectMocks
     private ClothesTypeService clothesTypeService;
 
+    @BeforeEach
+    void setUp() {
+        clothesTypeService = new ClothesTypeService(clothesTypeRepository, Duration.ofMinutes(1));
+    }
+
     @Test
     void saveClothesType_whenClothesTypeDoesNotExist_shouldReturnSavedClothesTypeId() {
         ClothesType clothesType = new ClothesType("testName", ClothesLayer.BASE_LAYER);
@@ -173,8 +180,8 @@ public class ClothesTypeServiceTests {
 
     @Test
     void getAllClothesTypes_whenTableIsEmpty_shouldReturnEmpty() {
-        Mockito.when(clothesTypeRepository.findAll(Mockito.any(PageRequest.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
-        Iterable<ClothesType> allClothesTypes = clothesTypeService.getAllClothesTypes(0, 999, Sort.unsorted());
+        Mockito.when(clothesTypeRepository.findViewsBy(Mockito.any(Pageable.class))).thenReturn(new SliceImpl<>(Collections.emptyList()));
+        Iterable<ClothesTypeView> allClothesTypes = clothesTypeService.getAllClothesTypes(0, 999, Sort.unsorted());
 
         Assertions.assertNotNull(allClothesTypes);
         Assertions.assertFalse(allClothesTypes.iterator().hasNext());
@@ -185,12 +192,13 @@ public class ClothesTypeServiceTests {
         ClothesType clothesType1 = new ClothesType(1L, "testName1", ClothesLayer.BASE_LAYER);
         ClothesType clothesType2 = new ClothesType(2L, "testName2", ClothesLayer.BOTTOMWEAR);
         ClothesType clothesType3 = new ClothesType(3L, "testName3", ClothesLayer.ACCESSORY);
-        List<ClothesType> clothesTypeIterable = Arrays.asList(clothesType1, clothesType2, clothesType3);
-        Page<ClothesType> page = new PageImpl<>(clothesTypeIterable, PageRequest.of(0, 3), 3);
+        List<ClothesTypeView> clothesTypeIterable = Arrays.asList(
+                ClothesTypeView.of(clothesType1), ClothesTypeView.of(clothesType2), ClothesTypeView.of(clothesType3));
+        Slice<ClothesTypeView> page = new SliceImpl<>(clothesTypeIterable, PageRequest.of(0, 3), false);
 
-        Mockito.when(clothesTypeRepository.findAll(Mockito.any(PageRequest.class))).thenReturn(page);
+        Mockito.when(clothesTypeRepository.findViewsBy(Mockito.any(Pageable.class))).thenReturn(page);
 
-        Iterable<ClothesType> allClothesTypes = clothesTypeService.getAllClothesTypes(0, 999, Sort.unsorted());
+        Iterable<ClothesTypeView> allClothesTypes = clothesTypeService.getAllClothesTypes(0, 999, Sort.unsorted());
 
         Assertions.assertNotNull(allClothesTypes);
         Assertions.assertTrue(allClothesTypes.iterator().hasNext());
@@ -316,4 +324,28 @@ public class ClothesTypeServiceTests {
         Assertions.assertEquals(update.getName(), updatedClothesType.getName());
         Assertions.assertEquals(clothesType.getLayer(), updatedClothesType.getLayer());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getClothesType_whenCalledTwice_shouldQueryRepositoryOnce() {
+        Mockito.when(clothesTypeRepository.findByName("testName"))
+                .thenReturn(Optional.of(new ClothesType(1L, "testName", ClothesLayer.BASE_LAYER)));
+
+        clothesTypeService.getClothesType("testName");
+        ClothesType found = clothesTypeService.getClothesType(1L);
+
+        Assertions.assertEquals("testName", found.getName());
+        Mockito.verify(clothesTypeRepository, Mockito.times(1)).findByName("testName");
+        Mockito.verify(clothesTypeRepository, Mockito.never()).findById(Mockito.any());
+    }
+
+    @Test
+    void saveClothesType_whenCatalogIsLoaded_shouldCheckUniquenessWithoutRepository() {
+        Mockito.when(clothesTypeRepository.findAll())
+                .thenReturn(List.of(new ClothesType(1L, "testName", ClothesLayer.BASE_LAYER)));
+        clothesTypeService.loadCatalog();
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> clothesTypeService.saveClothesType("testName", ClothesLayer.MID_LAYER));
+        Mockito.verify(clothesTypeRepository, Mockito.never()).findByName(Mockito.any());
+    }
+}
@@ -1,19 +1,25 @@
 package x0j3m.virtualwardrobe.service;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import x0j3m.virtualwardrobe.data.ColorRepository;
 import x0j3m.virtualwardrobe.model.Color;
+import x0j3m.virtualwardrobe.model.ColorView;
 
+import java.time.Duration;
 import java.util.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,9 +27,13 @@ public class ColorServiceTests {
     @Mock
     private ColorRepository colorRepository;
 
-    @InjectMocks
     private ColorService colorService;
 
+    @BeforeEach
+    void setUp() {
+        colorService = new ColorService(colorRepository, Duration.ofMinutes(1));
+    }
+
     @Test
     void saveColor_whenColorDoesNotExist_shouldReturnSavedColorId() {
         Color color = new Color("testColor");
@@ -166,10 +176,10 @@ public class ColorServiceTests {
 
     @Test
     void getAllColors_whenTableIsEmpty_shouldReturnEmpty() {
-        Mockito.when(colorRepository.findAll(Mockito.any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(Collections.emptyList()));
+        Mockito.when(colorRepository.findViewsBy(Mockito.any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
 
-        Iterable<Color> allColors = colorService.getAllColors(0, 999, Sort.unsorted());
+        Iterable<ColorView> allColors = colorService.getAllColors(0, 999, Sort.unsorted());
 
         Assertions.assertNotNull(allColors);
         Assertions.assertFalse(allColors.iterator().hasNext());
@@ -180,18 +190,38 @@ public class ColorServiceTests {
         Color color1 = new Color(1L, "testColor1");
         Color color2 = new Color(2L, "testColor2");
         Color color3 = new Color(3L, "testColor3");
-        List<Color> colorsIterable = Arrays.asList(color1, color2, color3);
-        Page<Color> page = new PageImpl<>(colorsIterable, PageRequest.of(0, 3), 3);
+        List<ColorView> colorsIterable = Arrays.asList(ColorView.of(color1), ColorView.of(color2), ColorView.of(color3));
+        Slice<ColorView> page = new SliceImpl<>(colorsIterable, PageRequest.of(0, 3), false);
 
-        Mockito.when(colorRepository.findAll(Mockito.any(PageRequest.class))).thenReturn(page);
+        Mockito.when(colorRepository.findViewsBy(Mockito.any(Pageable.class))).thenReturn(page);
 
-        Iterable<Color> allColors = colorService.getAllColors(0, 999, Sort.unsorted());
+        Iterable<ColorView> allColors = colorService.getAllColors(0, 999, Sort.unsorted());
 
         Assertions.assertNotNull(allColors);
         Assertions.assertTrue(allColors.iterator().hasNext());
         Assertions.assertEquals(3, allColors.spliterator().getExactSizeIfKnown());
     }
 
+    @Test
+    void getAllColors_whenPositionIsGiven_shouldSeekWithLimit() {
+        ScrollPosition position = ScrollPosition.forward(Map.of("id", 3L));
+        Window<Color> window = Window.from(List.of(new Color(4L, "testColor4")), index -> position, false);
+        Mockito.when(colorRepository.findAllBy(position, Sort.by("id"), Limit.of(10))).thenReturn(window);
+
+        Window<ColorView> views = colorService.getAllColors(position, 10, Sort.by("id"));
+
+        Assertions.assertEquals(List.of(new ColorView(4L, "testColor4")), views.getContent());
+        Assertions.assertEquals(position, views.positionAt(0));
+    }
+
+    @Test
+    void getAllColors_whenKeysetSizeIsNotPositive_shouldThrowIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> colorService.getAllColors(ScrollPosition.keyset(), 0, Sort.unsorted()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> colorService.getAllColors(null, 10, Sort.unsorted()));
+    }
+
     @Test
     void deleteColor_whenColorIdExists_shouldDeleteColor() {
         Color color = new Color(1L, "testColor");
@@ -278,4 +308,101 @@ public class ColorServiceTests {
     void updateColor_whenUpdateIsNull_shouldThrowIllegalArgumentException() {
         Assertions.assertThrows(IllegalArgumentException.class, () -> colorService.updateColor(1L, null));
     }
+
+    @Test
+    void getColor_whenCalledTwice_shouldQueryRepositoryOnce() {
+        Mockito.when(colorRepository.findById(1L)).thenReturn(Optional.of(new Color(1L, "testColor")));
+
+        colorService.getColor(1L);
+        Color found = colorService.getColor("testColor");
+
+        Assertions.assertEquals(1L, found.getId());
+        Mockito.verify(colorRepository, Mockito.times(1)).findById(1L);
+        Mockito.verify(colorRepository, Mockito.never()).findByName(Mockito.any());
+    }
+
+    @Test
+    void getColor_whenCatalogIsLoaded_shouldNotQueryRepository() {
+        Mockito.when(colorRepository.findAll()).thenReturn(List.of(new Color(1L, "testColor")));
+        colorService.loadCatalog();
+
+        Assertions.assertNotNull(colorService.getColor(1L));
+        Assertions.assertNull(colorService.getColor(2L));
+        Assertions.assertNull(colorService.getColor("otherColor"));
+        Mockito.verify(colorRepository, Mockito.never()).findById(Mockito.any());
+        Mockito.verify(colorRepository, Mockito.never()).findByName(Mockito.any());
+    }
+
+    @Test
+    void loadCatalog_whenColorIsSavedWhileLoading_shouldLoadAgainAndKeepIt() {
+        Mockito.when(colorRepository.findByName("newColor")).thenReturn(Optional.empty());
+        Mockito.when(colorRepository.save(Mockito.any(Color.class))).thenReturn(new Color(2L, "newColor"));
+        Mockito.when(colorRepository.findAll())
+                .thenAnswer(invocation -> {
+                    colorService.saveColor("newColor");
+                    return List.of(new Color(1L, "testColor"));
+                })
+                .thenReturn(List.of(new Color(1L, "testColor"), new Color(2L, "newColor")));
+
+        colorService.loadCatalog();
+
+        Assertions.assertEquals(2L, colorService.getColor("newColor").getId());
+        Assertions.assertNull(colorService.getColor("otherColor"));
+        Mockito.verify(colorRepository, Mockito.never()).findByName("otherColor");
+        Mockito.verify(colorRepository, Mockito.times(2)).findAll();
+    }
+
+    @Test
+    void getColor_whenNameDiffersInCase_shouldReturnCachedColor() {
+        Mockito.when(colorRepository.findAll()).thenReturn(List.of(new Color(1L, "black")));
+        colorService.loadCatalog();
+
+        Assertions.assertEquals(1L, colorService.getColor("Black").getId());
+        Mockito.verify(colorRepository, Mockito.never()).findByName(Mockito.any());
+    }
+
+    @Test
+    void updateColor_whenCatalogIsLoaded_shouldReplaceCachedColor() {
+        Mockito.when(colorRepository.findAll()).thenReturn(List.of(new Color(1L, "testColor")));
+        Mockito.when(colorRepository.save(Mockito.any(Color.class))).thenReturn(new Color(1L, "newColor"));
+        colorService.loadCatalog();
+
+        colorService.updateColor(1L, new Color("newColor"));
+
+        Assertions.assertEquals("newColor", colorService.getColor(1L).getName());
+        Assertions.assertNull(colorService.getColor("testColor"));
+        Assertions.assertEquals(1L, colorService.getColor("newColor").getId());
+    }
+
+    @Test
+    void deleteColor_whenCatalogIsLoaded_shouldRemoveCachedColor() {
+        Mockito.when(colorRepository.findAll()).thenReturn(List.of(new Color(1L, "testColor")));
+        colorService.loadCatalog();
+
+        colorService.deleteColor(1L);
+
+        Assertions.assertNull(colorService.getColor(1L));
+        Assertions.assertNull(colorService.getColor("testColor"));
+    }
+
+    @Test
+    void getVersion_whenColorIsSaved_shouldIncrease() {
+        Mockito.when(colorRepository.findByName("testColor")).thenReturn(Optional.empty());
+        Mockito.when(colorRepository.save(Mockito.any(Color.class))).thenReturn(new Color(1L, "testColor"));
+        long version = colorService.getVersion();
+
+        colorService.saveColor("testColor");
+
+        Assertions.assertTrue(colorService.getVersion() > version);
+    }
+
+    @Test
+    void getVersion_whenSaveFails_shouldNotChange() {
+        Mockito.when(colorRepository.findByName("testColor")).thenReturn(Optional.of(new Color(1L, "testColor")));
+        long version = colorService.getVersion();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> colorService.saveColor("testColor"));
+
+        Assertions.assertEquals(version, colorService.getVersion());
+    }
 }
@@ -0,0 +1,272 @@
+package x0j3m.virtualwardrobe.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.model.ClothesView;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+@ExtendWith(MockitoExtension.class)
+public class OutfitEngineTests {
+    private static final List<ClothesLayer> BASE_AND_BOTTOM = List.of(ClothesLayer.BASE_LAYER, ClothesLayer.BOTTOMWEAR);
+
+    @Mock
+    private ClothesService clothesService;
+
+    private OutfitEngine outfitEngine;
+    private final List<ClothesView> clothes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        outfitEngine = new OutfitEngine(clothesService, 4, 100, 1_000_000);
+        Mockito.lenient().when(clothesService.exportClothes(Mockito.any())).thenAnswer(invocation -> {
+            Consumer<ClothesView> consumer = invocation.getArgument(0);
+            clothes.forEach(consumer);
+            return (long) clothes.size();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        outfitEngine.destroy();
+    }
+
+    @Test
+    void generate_whenRequiredLayersOnly_shouldReturnCombinationsInLoadOrder() {
+        add(1L, ClothesLayer.BASE_LAYER, 1L);
+        add(2L, ClothesLayer.BASE_LAYER, 2L);
+        add(3L, ClothesLayer.BOTTOMWEAR, 1L);
+        add(4L, ClothesLayer.FOOTWEAR, 3L);
+
+        List<OutfitEngine.Outfit> outfits = outfitEngine.generate(query(
+                List.of(ClothesLayer.BASE_LAYER, ClothesLayer.BOTTOMWEAR, ClothesLayer.FOOTWEAR), List.of(), Set.of(), 3, 10)).outfits();
+
+        Assertions.assertEquals(List.of(List.of(1L, 3L, 4L), List.of(2L, 3L, 4L)), ids(outfits));
+        Assertions.assertEquals(new OutfitEngine.Item(4L, ClothesLayer.FOOTWEAR, 3L), outfits.get(0).items().get(2));
+    }
+
+    @Test
+    void generate_whenColorBudgetIsUsedUp_shouldOnlyMatchChosenColors() {
+        add(1L, ClothesLayer.BASE_LAYER, 1L);
+        add(2L, ClothesLayer.BASE_LAYER, 2L);
+        add(3L, ClothesLayer.BOTTOMWEAR, 1L);
+        add(4L, ClothesLayer.BOTTOMWEAR, 3L);
+
+        List<OutfitEngine.Outfit> outfits = outfitEngine.generate(query(BASE_AND_BOTTOM, List.of(), Set.of(), 1, 10)).outfits();
+
+        Assertions.assertEquals(List.of(List.of(1L, 3L)), ids(outfits));
+    }
+
+    @Test
+    void generate_whenLayerIsOptional_shouldAlsoLeaveItEmptyAfterItsItems() {
+        add(1L, ClothesLayer.BASE_LAYER, 1L);
+        add(2L, ClothesLayer.BASE_LAYER, 2L);
+        add(3L, ClothesLayer.HEADWEAR, 1L);
+
+        List<OutfitEngine.Outfit> outfits = outfitEngine.generate(query(
+                List.of(ClothesLayer.BASE_LAYER), List.of(ClothesLayer.HEADWEAR), Set.of(), 3, 10)).outfits();
+
+        Assertions.assertEquals(List.of(List.of(1L, 3L), List.of(1L), List.of(2L, 3L), List.of(2L)), ids(outfits));
+    }
+
+    @Test
+    void generate_whenColorsAreGiven_shouldOnlyUseThoseColors() {
+        add(1L, ClothesLayer.BASE_LAYER, 1L);
+        add(2L, ClothesLayer.BASE_LAYER, 2L);
+        add(3L, ClothesLayer.BOTTOMWEAR, 1L);
+        add(4L, ClothesLayer.BOTTOMWEAR, 2L);
+
+        List<OutfitEngine.Outfit> outfits = outfitEngine.generate(query(BASE_AND_BOTTOM, List.of(), Set.of(2L), 3, 10)).outfits();
+
+        Assertions.assertEquals(List.of(List.of(2L, 4L)), ids(outfits));
+    }
+
+    @Test
+    void generate_whenRequiredLayerIsEmpty_shouldReturnNoOutfits() {
+        add(1L, ClothesLayer.BASE_LAYER, 1L);
+
+        Assertions.assertTrue(outfitEngine.generate(query(BASE_AND_BOTTOM, List.of(), Set.of(), 3, 10)).outfits().isEmpty());
+    }
+
+    @Test
+    void generate_whenClothesHaveNoColorOrType_shouldLeaveThemOut() {
+        add(1L, ClothesLayer.BASE_LAYER, null);
+        clothes.add(new ClothesView(2L, 1L, "color1", null, null, null));
+        add(3L, ClothesLayer.BASE_LAYER, 1L);
+
+        List<OutfitEngine.Outfit> outfits = outfitEngine.generate(query(List.of(ClothesLayer.BASE_LAYER), List.of(), Set.of(), 3, 10)).outfits();
+
+        Assertions.assertEquals(List.of(List.of(3L)), ids(outfits));
+    }
+
+    @Test
+    void generate_whenSearchIsSplitBetweenTasks_shouldMatchSequentialOrder() {
+        Random random = new Random(42);
+        long id = 1;
+        for (int i = 0; i < 200; i++) {
+            add(id++, ClothesLayer.BASE_LAYER, 1L + random.nextInt(6));
+        }
+        for (int i = 0; i < 30; i++) {
+            add(id++, ClothesLayer.BOTTOMWEAR, 1L + random.nextInt(6));
+        }
+        List<List<Long>> expected = new ArrayList<>();
+        for (ClothesView top : clothes) {
+            for (ClothesView bottom : clothes) {
+                if (top.layer() == ClothesLayer.BASE_LAYER && bottom.layer() == ClothesLayer.BOTTOMWEAR
+                        && top.colorId().equals(bottom.colorId()) && expected.size() < 100) {
+                    expected.add(List.of(top.id(), bottom.id()));
+                }
+            }
+        }
+
+        List<OutfitEngine.Outfit> outfits = outfitEngine.generate(query(BASE_AND_BOTTOM, List.of(), Set.of(), 1, 100)).outfits();
+
+        Assertions.assertEquals(expected, ids(outfits));
+    }
+
+    @Test
+    void generate_whenLaterRequiredLayerCannotMatchChosenColors_shouldPruneBranch() {
+        long id = 1;
+        for (int i = 0; i < 200; i++) {
+            add(id++, ClothesLayer.BASE_LAYER, 1L);
+            add(id++, ClothesLayer.BOTTOMWEAR, 1L);
+        }
+        add(id++, ClothesLayer.BASE_LAYER, 2L);
+        add(id++, ClothesLayer.BOTTOMWEAR, 2L);
+        add(id, ClothesLayer.FOOTWEAR, 2L);
+        OutfitEngine engine = new OutfitEngine(clothesService, 4, 100, 5_000);
+
+        try {
+            List<OutfitEngine.Outfit> outfits = engine.generate(query(
+                    List.of(ClothesLayer.BASE_LAYER, ClothesLayer.BOTTOMWEAR, ClothesLayer.FOOTWEAR), List.of(), Set.of(), 1, 10)).outfits();
+
+            Assertions.assertEquals(List.of(List.of(401L, 402L, 403L)), ids(outfits));
+        } finally {
+            engine.destroy();
+        }
+    }
+
+    @Test
+    void generate_whenNodeBudgetIsSpent_shouldStopSearching() {
+        long id = 1;
+        for (int i = 0; i < 300; i++) {
+            add(id++, ClothesLayer.BASE_LAYER, 1L);
+            add(id++, ClothesLayer.BOTTOMWEAR, 2L);
+        }
+        add(id++, ClothesLayer.BASE_LAYER, 4L);
+        add(id++, ClothesLayer.FOOTWEAR, 3L);
+        add(id, ClothesLayer.FOOTWEAR, 4L);
+        OutfitEngine.Query query = query(
+                List.of(ClothesLayer.BASE_LAYER, ClothesLayer.BOTTOMWEAR, ClothesLayer.FOOTWEAR), List.of(), Set.of(), 2, 10);
+        OutfitEngine engine = new OutfitEngine(clothesService, 4, 100, 5_000);
+
+        try {
+            OutfitEngine.Result result = outfitEngine.generate(query);
+            Assertions.assertFalse(result.truncated());
+            List<OutfitEngine.Outfit> unbounded = result.outfits();
+            Assertions.assertEquals(10, unbounded.size());
+            Assertions.assertEquals(List.of(601L, 2L, 603L), ids(unbounded).get(0));
+            OutfitEngine.Result bounded = engine.generate(query);
+            Assertions.assertTrue(bounded.outfits().isEmpty());
+            Assertions.assertTrue(bounded.truncated());
+        } finally {
+            engine.destroy();
+        }
+    }
+
+    @Test
+    void generate_whenWardrobeIsLoadedConcurrently_shouldLoadOnce() throws Exception {
+        add(1L, ClothesLayer.BASE_LAYER, 1L);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            Consumer<ClothesView> consumer = invocation.getArgument(0);
+            clothes.forEach(consumer);
+            return (long) clothes.size();
+        }).when(clothesService).exportClothes(Mockito.any());
+        OutfitEngine.Query query = query(List.of(ClothesLayer.BASE_LAYER), List.of(), Set.of(), 3, 10);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicReference<OutfitEngine.Result> second = new AtomicReference<>();
+        Thread waiting = new Thread(() -> second.set(outfitEngine.generate(query)));
+
+        try {
+            Future<OutfitEngine.Result> first = executor.submit(() -> outfitEngine.generate(query));
+            Assertions.assertTrue(loading.await(5, TimeUnit.SECONDS));
+            waiting.start();
+            while (waiting.getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            waiting.join(5_000);
+
+            Assertions.assertEquals(List.of(List.of(1L)), ids(first.get(5, TimeUnit.SECONDS).outfits()));
+            Assertions.assertEquals(List.of(List.of(1L)), ids(second.get().outfits()));
+            Mockito.verify(clothesService, Mockito.times(1)).exportClothes(Mockito.any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void generate_whenVersionIsUnchanged_shouldReuseLoadedWardrobe() {
+        add(1L, ClothesLayer.BASE_LAYER, 1L);
+        Mockito.when(clothesService.getVersion()).thenReturn(1L, 1L, 2L);
+        OutfitEngine.Query query = query(List.of(ClothesLayer.BASE_LAYER), List.of(), Set.of(), 3, 10);
+
+        outfitEngine.generate(query);
+        outfitEngine.generate(query);
+        outfitEngine.generate(query);
+
+        Mockito.verify(clothesService, Mockito.times(2)).exportClothes(Mockito.any());
+    }
+
+    @Test
+    void generate_whenQueryIsInvalid_shouldThrowIllegalArgumentException() {
+        List<OutfitEngine.Query> queries = List.of(
+                query(List.of(), List.of(), Set.of(), 3, 10),
+                query(BASE_AND_BOTTOM, List.of(ClothesLayer.BASE_LAYER), Set.of(), 3, 10),
+                query(BASE_AND_BOTTOM, List.of(), Set.of(), 0, 10),
+                query(BASE_AND_BOTTOM, List.of(), Set.of(), 3, 0),
+                query(BASE_AND_BOTTOM, List.of(), Set.of(), 3, 101));
+
+        for (OutfitEngine.Query query : queries) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> outfitEngine.generate(query), query.toString());
+        }
+        Mockito.verify(clothesService, Mockito.never()).exportClothes(Mockito.any());
+    }
+
+    private void add(Long id, ClothesLayer layer, Long colorId) {
+        clothes.add(new ClothesView(id, colorId, "color" + colorId, 1L, "type", layer));
+    }
+
+    private static OutfitEngine.Query query(List<ClothesLayer> required, List<ClothesLayer> optional,
+                                            Set<Long> colorIds, int maxColors, int limit) {
+        return new OutfitEngine.Query(required, optional, new HashSet<>(colorIds), maxColors, limit);
+    }
+
+    private static List<List<Long>> ids(List<OutfitEngine.Outfit> outfits) {
+        return outfits.stream()
+                .map(outfit -> outfit.items().stream().map(OutfitEngine.Item::id).toList())
+                .toList();
+    }
+}
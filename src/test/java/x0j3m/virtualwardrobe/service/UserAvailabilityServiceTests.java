@@ -0,0 +1,108 @@
+package x0j3m.virtualwardrobe.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import x0j3m.virtualwardrobe.data.UserRepository;
+import x0j3m.virtualwardrobe.model.User;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@ExtendWith(MockitoExtension.class)
+public class UserAvailabilityServiceTests {
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private UserAvailabilityService userAvailabilityService;
+
+    @BeforeEach
+    void setUp() {
+        userAvailabilityService = new UserAvailabilityService(userRepository, transactionTemplate, 0.01, new SimpleMeterRegistry());
+    }
+
+    private void rebuildWith(String username, String email) {
+        Mockito.when(userRepository.count()).thenReturn(1L);
+        Mockito.when(userRepository.streamAllBy()).thenReturn(Stream.of(usernameAndEmail(username, email)));
+        Mockito.doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(Mockito.any());
+
+        userAvailabilityService.rebuild();
+    }
+
+    private static UserRepository.UsernameAndEmail usernameAndEmail(String username, String email) {
+        return new UserRepository.UsernameAndEmail() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+
+    @Test
+    void isUsernameAvailable_whenFilterIsNotBuilt_shouldQueryRepository() {
+        Mockito.when(userRepository.findByUsername("username")).thenReturn(Optional.empty());
+
+        Assertions.assertTrue(userAvailabilityService.isUsernameAvailable("username"));
+        Mockito.verify(userRepository).findByUsername("username");
+    }
+
+    @Test
+    void isUsernameAvailable_whenFilterDoesNotContainUsername_shouldNotQueryRepository() {
+        rebuildWith("username", "email@email.com");
+
+        Assertions.assertTrue(userAvailabilityService.isUsernameAvailable("otherUsername"));
+        Mockito.verify(userRepository, Mockito.never()).findByUsername(Mockito.anyString());
+    }
+
+    @Test
+    void isUsernameAvailable_whenFilterContainsUsername_shouldQueryRepository() {
+        rebuildWith("username", "email@email.com");
+        Mockito.when(userRepository.findByUsername("username")).thenReturn(Optional.of(new User()));
+
+        Assertions.assertFalse(userAvailabilityService.isUsernameAvailable("username"));
+    }
+
+    @Test
+    void isEmailAvailable_whenFilterContainsEmail_shouldQueryRepository() {
+        rebuildWith("username", "email@email.com");
+        Mockito.when(userRepository.findByEmail("email@email.com")).thenReturn(Optional.of(new User()));
+
+        Assertions.assertFalse(userAvailabilityService.isEmailAvailable("email@email.com"));
+    }
+
+    @Test
+    void isEmailAvailable_whenUserWasCreatedAfterBuild_shouldQueryRepository() {
+        rebuildWith("username", "email@email.com");
+        User created = new User("newUsername", "password", "firstName", "lastName", "new@email.com");
+        Mockito.when(userRepository.findByEmail("new@email.com")).thenReturn(Optional.of(created));
+
+        userAvailabilityService.onUserChanged(new UserChangedEvent(null, created));
+
+        Assertions.assertFalse(userAvailabilityService.isEmailAvailable("new@email.com"));
+    }
+
+    @Test
+    void isUsernameAvailable_whenUsernameIsEmpty_shouldThrowIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> userAvailabilityService.isUsernameAvailable(""));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> userAvailabilityService.isEmailAvailable(null));
+    }
+}
@@ -1,16 +1,22 @@
 package x0j3m.virtualwardrobe.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import x0j3m.virtualwardrobe.data.UserRepository;
 import x0j3m.virtualwardrobe.model.User;
+import x0j3m.virtualwardrobe.security.PasswordHashingExecutor;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
@@ -19,6 +25,14 @@ public class UserServiceTests {
     private UserRepository userRepository;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private UserCache userCache = new UserCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+    @Spy
+    private PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(1, 1, new SimpleMeterRegistry());
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private UserService userService;
@@ -59,10 +73,10 @@ public class UserServiceTests {
         User existingUser = new User(1L, "username", "password", "firstName", "lastName", "email@email.com");
         Optional<User> existingUserOptional = Optional.of(existingUser);
 
-        Mockito.when(passwordEncoder.encode(Mockito.anyString())).thenReturn("password1");
         Mockito.when(userRepository.findByUsername(Mockito.anyString())).thenReturn(existingUserOptional);
 
         Assertions.assertThrows(IllegalArgumentException.class, () -> userService.saveUser(user));
+        Mockito.verify(passwordEncoder, Mockito.never()).encode(Mockito.anyString());
     }
 
     @Test
@@ -71,11 +85,37 @@ public class UserServiceTests {
         User existingUser = new User(1L, "username", "password", "firstName", "lastName", "email@email.com");
         Optional<User> existingUserOptional = Optional.of(existingUser);
 
-        Mockito.when(passwordEncoder.encode(Mockito.anyString())).thenReturn("password1");
         Mockito.when(userRepository.findByUsername(Mockito.anyString())).thenReturn(Optional.empty());
         Mockito.when(userRepository.findByEmail(Mockito.anyString())).thenReturn(existingUserOptional);
 
         Assertions.assertThrows(IllegalArgumentException.class, () -> userService.saveUser(user));
+        Mockito.verify(passwordEncoder, Mockito.never()).encode(Mockito.anyString());
+    }
+
+    @Test
+    void saveUser_whenRawPasswordIsTooShort_shouldThrowIllegalArgumentExceptionWithoutHashing() {
+        User user = new User("username", "short", "firstName", "lastName", "email@email.com");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> userService.saveUser(user));
+        Mockito.verify(passwordEncoder, Mockito.never()).encode(Mockito.anyString());
+        Mockito.verify(userRepository, Mockito.never()).findByUsername(Mockito.anyString());
+    }
+
+    @Test
+    void saveUser_whenUserIsValid_shouldStoreHashedPasswordAndRecordStages() {
+        User user = new User("username", "password", "firstName", "lastName", "email@email.com");
+
+        Mockito.when(userRepository.findByUsername(Mockito.anyString())).thenReturn(Optional.empty());
+        Mockito.when(userRepository.findByEmail(Mockito.anyString())).thenReturn(Optional.empty());
+        Mockito.when(passwordEncoder.encode("password")).thenReturn("hashedPassword");
+        Mockito.when(userRepository.save(Mockito.any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userService.saveUser(user);
+
+        Mockito.verify(userRepository).save(Mockito.argThat(saved -> "hashedPassword".equals(saved.getPassword())));
+        for (String stage : new String[]{"validate", "availability", "hash", "persist"}) {
+            Assertions.assertEquals(1, meterRegistry.get("users.registration.stage").tag("stage", stage).timer().count());
+        }
     }
 
     @Test
@@ -136,6 +176,48 @@ public class UserServiceTests {
         Assertions.assertEquals(user.getEmail(), found.getEmail());
     }
 
+    @Test
+    void getUser_whenUsernameWasAlreadyLoaded_shouldNotQueryRepositoryAgain() {
+        User user = new User(1L, "username", "password", "firstName", "lastName", "email@email.com");
+
+        Mockito.when(userRepository.findByUsername("username")).thenReturn(Optional.of(user));
+
+        userService.getUser("username");
+        User found = userService.getUser("username");
+
+        Assertions.assertEquals(user, found);
+        Mockito.verify(userRepository, Mockito.times(1)).findByUsername("username");
+    }
+
+    @Test
+    void getUser_whenCachedUserWasChanged_shouldQueryRepositoryAgain() {
+        User user = new User(1L, "username", "password", "firstName", "lastName", "email@email.com");
+        User updated = new User(1L, "username", "password", "newFirstName", "lastName", "email@email.com");
+
+        Mockito.when(userRepository.findByUsername("username"))
+                .thenReturn(Optional.of(user))
+                .thenReturn(Optional.of(updated));
+
+        userService.getUser("username");
+        userCache.onUserChanged(new UserChangedEvent(user, updated));
+        User found = userService.getUser("username");
+
+        Assertions.assertEquals("newFirstName", found.getFirstName());
+        Mockito.verify(userRepository, Mockito.times(2)).findByUsername("username");
+    }
+
+    @Test
+    void getUser_whenReturnedUserIsModified_shouldNotAffectCachedUser() {
+        User user = new User(1L, "username", "password", "firstName", "lastName", "email@email.com");
+
+        Mockito.when(userRepository.findByUsername("username")).thenReturn(Optional.of(user));
+
+        userService.getUser("username").setFirstName("modified");
+        User found = userService.getUser("username");
+
+        Assertions.assertEquals("firstName", found.getFirstName());
+    }
+
     @Test
     void getUser_whenUsernameDoesNotExists_shouldReturnNull() {
         Mockito.when(userRepository.findByUsername(Mockito.anyString())).thenReturn(Optional.empty());
@@ -252,6 +334,31 @@ public class UserServiceTests {
         Assertions.assertThrows(IllegalArgumentException.class, () -> userService.updateUser(1L, update));
     }
 
+    @Test
+    void updateUser_whenPasswordIsUpdated_shouldStoreHashedPassword() {
+        User user = new User(1L, "username", "oldHashedPassword", "firstName", "lastName", "email@email.com");
+        User update = User.builder().password("newPassword").build();
+
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+        Mockito.when(passwordEncoder.encode("newPassword")).thenReturn("newHashedPassword");
+        Mockito.when(userRepository.save(Mockito.any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        User updated = userService.updateUser(1L, update);
+
+        Assertions.assertEquals("newHashedPassword", updated.getPassword());
+    }
+
+    @Test
+    void updateUser_whenNewPasswordIsTooShort_shouldThrowIllegalArgumentExceptionWithoutHashing() {
+        User user = new User(1L, "username", "oldHashedPassword", "firstName", "lastName", "email@email.com");
+        User update = User.builder().password("short").build();
+
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> userService.updateUser(1L, update));
+        Mockito.verify(passwordEncoder, Mockito.never()).encode(Mockito.anyString());
+    }
+
     @Test
     void updateUser_whenIdIsNull_shouldThrowIllegalArgumentException() {
         Assertions.assertThrows(IllegalArgumentException.class, () -> userService.updateUser(null, new User()));
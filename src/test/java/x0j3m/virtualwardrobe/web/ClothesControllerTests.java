@@ -1,6 +1,7 @@
 package x0j3m.virtualwardrobe.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -10,23 +11,29 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import x0j3m.virtualwardrobe.data.TableStatistics;
 import x0j3m.virtualwardrobe.web.dto.ClothesRequestDTO;
 import x0j3m.virtualwardrobe.model.Clothes;
 import x0j3m.virtualwardrobe.model.ClothesLayer;
 import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.ClothesView;
 import x0j3m.virtualwardrobe.model.Color;
+import x0j3m.virtualwardrobe.service.CatalogResolver;
+import x0j3m.virtualwardrobe.service.ClothesFacets;
+import x0j3m.virtualwardrobe.service.ClothesImporter;
 import x0j3m.virtualwardrobe.service.ClothesService;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @WebMvcTest(controllers = ClothesController.class)
 @AutoConfigureMockMvc(addFilters = false)
@@ -43,22 +50,29 @@ public class ClothesControllerTests {
         }
 
         @Bean
-        ClothesTypeController clothesTypeController() {
-            return Mockito.mock(ClothesTypeController.class);
+        CatalogResolver catalogResolver() {
+            return Mockito.mock(CatalogResolver.class);
         }
 
         @Bean
-        ColorController colorController() {
-            return Mockito.mock(ColorController.class);
+        ClothesImporter clothesImporter() {
+            return Mockito.mock(ClothesImporter.class);
+        }
+
+        @Bean
+        ClothesFacets clothesFacets() {
+            return Mockito.mock(ClothesFacets.class);
         }
     }
 
     @Autowired
     private ClothesService clothesService;
     @Autowired
-    private ClothesTypeController clothesTypeController;
+    private CatalogResolver catalogResolver;
     @Autowired
-    private ColorController colorController;
+    private ClothesImporter clothesImporter;
+    @Autowired
+    private ClothesFacets clothesFacets;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -67,7 +81,7 @@ public class ClothesControllerTests {
         Color color = new Color(1L, "testColor");
         ClothesType clothesType = new ClothesType(1L, "testClothesType", ClothesLayer.BASE_LAYER);
         Clothes clothes = new Clothes(1L, color, clothesType);
-        Mockito.when(clothesService.getClothes(Mockito.anyLong())).thenReturn(clothes);
+        Mockito.when(clothesService.getClothes(Mockito.anyLong())).thenReturn(ClothesView.of(clothes));
 
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/clothes/1"));
 
@@ -90,6 +104,31 @@ public class ClothesControllerTests {
         response.andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
 
+    @Test
+    void exportClothes_whenClothesExist_shouldStreamOneJsonObjectPerLine() throws Exception {
+        Color color = new Color(1L, "testColor");
+        ClothesType clothesType = new ClothesType(1L, "testClothesType", ClothesLayer.BASE_LAYER);
+        Mockito.when(clothesService.exportClothes(Mockito.any())).thenAnswer(invocation -> {
+            Consumer<ClothesView> consumer = invocation.getArgument(0);
+            consumer.accept(ClothesView.of(new Clothes(1L, color, clothesType)));
+            consumer.accept(ClothesView.of(new Clothes(2L, color, clothesType)));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/clothes/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson"));
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertEquals(1, objectMapper.readTree(lines[0]).get("id").asLong());
+        Assertions.assertEquals("testColor", objectMapper.readTree(lines[0]).get("color").get("name").asText());
+        Assertions.assertEquals(2, objectMapper.readTree(lines[1]).get("id").asLong());
+    }
+
     @Test
     void getClothes_whenIdIsZeroOrNegative_shouldReturnNotFoundStatus() throws Exception {
         Mockito.when(clothesService.getClothes(Mockito.anyLong())).thenReturn(null);
@@ -114,7 +153,7 @@ public class ClothesControllerTests {
         Clothes clothes1 = new Clothes(1L, color1, clothesType1);
         Clothes clothes2 = new Clothes(2L, color2, clothesType2);
         Clothes clothes3 = new Clothes(3L, color3, clothesType3);
-        Mockito.when(clothesService.getAllClothes(Mockito.anyInt(), Mockito.anyInt(), Mockito.any())).thenReturn(List.of(clothes1, clothes2, clothes3));
+        Mockito.when(clothesService.getAllClothes(Mockito.anyInt(), Mockito.anyInt(), Mockito.any())).thenReturn(List.of(ClothesView.of(clothes1), ClothesView.of(clothes2), ClothesView.of(clothes3)));
 
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/clothes"));
 
@@ -134,6 +173,44 @@ public class ClothesControllerTests {
         response.andExpect(MockMvcResultMatchers.status().isNoContent());
     }
 
+    @Test
+    void getFacets_shouldReturnCountsPerColorTypeAndLayer() throws Exception {
+        Mockito.when(clothesFacets.getFacets()).thenReturn(new ClothesFacets.Facets(
+                List.of(new ClothesFacets.Facet(1L, "testColor", 3)),
+                List.of(new ClothesFacets.Facet(2L, "testClothesType", 3)),
+                Map.of(ClothesLayer.BASE_LAYER, 3L)));
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/clothes/facets"));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.colors[0].name").value("testColor"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.colors[0].count").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.types[0].id").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.layers.BASE_LAYER").value(3));
+    }
+
+    @Test
+    void searchClothes_whenFiltersMatch_shouldPassThemToService() throws Exception {
+        Color color = new Color(1L, "testColor");
+        ClothesType clothesType = new ClothesType(1L, "testClothesType", ClothesLayer.OUTER_LAYER);
+        Mockito.when(clothesService.searchClothes(Mockito.eq("testColor"), Mockito.isNull(), Mockito.eq(ClothesLayer.OUTER_LAYER),
+                Mockito.eq(0), Mockito.eq(10), Mockito.any())).thenReturn(List.of(ClothesView.of(new Clothes(1L, color, clothesType))));
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/clothes/search")
+                .param("color", "testColor").param("layer", "OUTER_LAYER").param("size", "10"));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].type.layer").value("OUTER_LAYER"));
+    }
+
+    @Test
+    void searchClothes_whenLayerIsNotValid_shouldReturnBadRequestStatus() throws Exception {
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/clothes/search").param("layer", "CAPE"));
+
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
     @Test
     @DirtiesContext
     void saveClothes_whenParametersAreValid_shouldReturnCreatedStatus() throws Exception {
@@ -243,29 +320,29 @@ public class ClothesControllerTests {
 
     @Test
     void updateClothes_whenClothesExistsAndRequestParametersAreValid_shouldReturnCreatedStatus() throws Exception {
-        Color color1 = new Color(1L, "testColorName1");
         Color color2 = new Color(2L, "testColorName2");
-        ClothesType clothesType1 = new ClothesType(1L, "testClothesType1", ClothesLayer.HEADWEAR);
         ClothesType clothesType2 = new ClothesType(2L, "testClothesType2", ClothesLayer.FOOTWEAR);
-        Clothes clothes = new Clothes(1L, color1, clothesType1);
         Clothes updatedClothes = new Clothes(1L, color2, clothesType2);
         ClothesRequestDTO update = new ClothesRequestDTO(color2.getId(), clothesType2.getId());
 
-        Mockito.when(clothesService.getClothes(Mockito.anyLong())).thenReturn(clothes);
-        Mockito.when(colorController.getColor(Mockito.anyLong())).thenReturn(new ResponseEntity<>(color1, HttpStatus.OK));
-        Mockito.when(clothesTypeController.getClothesType(Mockito.anyLong())).thenReturn(new ResponseEntity<>(clothesType1, HttpStatus.OK));
+        Mockito.when(catalogResolver.resolve(2L, 2L)).thenReturn(new Clothes(color2, clothesType2));
         Mockito.when(clothesService.updateClothes(Mockito.anyLong(), Mockito.any())).thenReturn(updatedClothes);
+        Mockito.clearInvocations(clothesService);
 
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders.patch("/clothes/1").accept(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(update)).contentType(MediaType.APPLICATION_JSON));
 
         response.andExpect(MockMvcResultMatchers.status().isCreated()).andExpect(MockMvcResultMatchers.header().string("Location", "/clothes/1"));
+        Mockito.verify(clothesService).updateClothes(Mockito.eq(1L), Mockito.argThat(
+                clothesUpdate -> clothesUpdate.getColor() == color2 && clothesUpdate.getType() == clothesType2));
     }
 
     @Test
     void updateClothes_whenClothesDoesNotExists_shouldReturnNotFoundStatus() throws Exception {
         ClothesRequestDTO update = new ClothesRequestDTO(1L, 1L);
 
-        Mockito.when(clothesService.getClothes(Mockito.anyLong())).thenReturn(null);
+        Mockito.when(catalogResolver.resolve(1L, 1L)).thenReturn(new Clothes(new Color(1L, "testColorName"), null));
+        Mockito.when(clothesService.updateClothes(Mockito.eq(999L), Mockito.any()))
+                .thenThrow(new IllegalArgumentException("Clothes with id 999 does not exist"));
 
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders
                 .patch("/clothes/999")
@@ -282,13 +359,10 @@ public class ClothesControllerTests {
         Color color = new Color(1L, "testColorName");
         ClothesType clothesType1 = new ClothesType(1L, "testClothesType1", ClothesLayer.HEADWEAR);
         ClothesType clothesType2 = new ClothesType(2L, "testClothesType2", ClothesLayer.FOOTWEAR);
-        Clothes clothes = new Clothes(1L, color, clothesType1);
         Clothes updatedClothes = new Clothes(1L, color, clothesType2);
         ClothesRequestDTO update = new ClothesRequestDTO(null, 1L);
 
-        Mockito.when(clothesService.getClothes(Mockito.anyLong())).thenReturn(clothes);
-        Mockito.when(colorController.getColor(Mockito.anyLong())).thenReturn(new ResponseEntity<>(color, HttpStatus.OK));
-        Mockito.when(clothesTypeController.getClothesType(Mockito.anyLong())).thenReturn(new ResponseEntity<>(clothesType1, HttpStatus.OK));
+        Mockito.when(catalogResolver.resolve(null, 1L)).thenReturn(new Clothes(null, clothesType1));
         Mockito.when(clothesService.updateClothes(Mockito.anyLong(), Mockito.any())).thenReturn(updatedClothes);
 
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders
@@ -307,13 +381,10 @@ public class ClothesControllerTests {
         Color color1 = new Color(1L, "testColorName1");
         Color color2 = new Color(2L, "testColorName2");
         ClothesType clothesType = new ClothesType(1L, "testClothesType", ClothesLayer.BASE_LAYER);
-        Clothes clothes = new Clothes(1L, color1, clothesType);
         Clothes updatedClothes = new Clothes(1L, color2, clothesType);
         ClothesRequestDTO update = new ClothesRequestDTO(1L, null);
 
-        Mockito.when(clothesService.getClothes(Mockito.anyLong())).thenReturn(clothes);
-        Mockito.when(colorController.getColor(Mockito.anyLong())).thenReturn(new ResponseEntity<>(color1, HttpStatus.OK));
-        Mockito.when(clothesTypeController.getClothesType(Mockito.anyLong())).thenReturn(new ResponseEntity<>(clothesType, HttpStatus.OK));
+        Mockito.when(catalogResolver.resolve(1L, null)).thenReturn(new Clothes(color1, null));
         Mockito.when(clothesService.updateClothes(Mockito.anyLong(), Mockito.any())).thenReturn(updatedClothes);
 
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders
@@ -329,13 +400,10 @@ public class ClothesControllerTests {
 
     @Test
     void updateClothes_whenUpdateColorIdDoesNotExist_shouldReturnNotFoundStatus() throws Exception {
-        Color color = new Color(1L, "testColorName");
-        ClothesType clothesType = new ClothesType(1L, "testClothesType", ClothesLayer.HEADWEAR);
-        Clothes clothes = new Clothes(1L, color, clothesType);
         ClothesRequestDTO update = new ClothesRequestDTO(999L, null);
 
-        Mockito.when(clothesService.getClothes(Mockito.anyLong())).thenReturn(clothes);
-        Mockito.when(colorController.getColor(Mockito.anyLong())).thenReturn(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        Mockito.when(catalogResolver.resolve(999L, null)).thenThrow(new IllegalArgumentException("Color with id 999 does not exist"));
+        Mockito.clearInvocations(clothesService);
 
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders
                 .patch("/clothes/1")
@@ -344,19 +412,16 @@ public class ClothesControllerTests {
                 .content(objectMapper.writeValueAsString(update))
         );
 
-        response.andExpect(MockMvcResultMatchers.status().isCreated())
-                .andExpect(MockMvcResultMatchers.header().string("Location", "/clothes/1"));
+        response.andExpect(MockMvcResultMatchers.status().isNotFound());
+        Mockito.verify(clothesService, Mockito.never()).updateClothes(Mockito.anyLong(), Mockito.any());
     }
 
     @Test
     void updateClothes_whenUpdateClothesTypeIdDoesNotExist_shouldReturnNotFoundStatus() throws Exception {
-        Color color = new Color(1L, "testColorName");
-        ClothesType clothesType = new ClothesType(1L, "testClothesType", ClothesLayer.HEADWEAR);
-        Clothes clothes = new Clothes(1L, color, clothesType);
         ClothesRequestDTO update = new ClothesRequestDTO(null, 999L);
 
-        Mockito.when(clothesService.getClothes(Mockito.anyLong())).thenReturn(clothes);
-        Mockito.when(clothesTypeController.getClothesType(Mockito.anyLong())).thenReturn(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        Mockito.when(catalogResolver.resolve(null, 999L)).thenThrow(new IllegalArgumentException("ClothesType with id 999 does not exist"));
+        Mockito.clearInvocations(clothesService);
 
         ResultActions response = mockMvc.perform(MockMvcRequestBuilders
                 .patch("/clothes/1")
@@ -365,8 +430,8 @@ public class ClothesControllerTests {
                 .content(objectMapper.writeValueAsString(update))
         );
 
-        response.andExpect(MockMvcResultMatchers.status().isCreated())
-                .andExpect(MockMvcResultMatchers.header().string("Location", "/clothes/1"));
+        response.andExpect(MockMvcResultMatchers.status().isNotFound());
+        Mockito.verify(clothesService, Mockito.never()).updateClothes(Mockito.anyLong(), Mockito.any());
     }
 
     @Test
@@ -380,4 +445,96 @@ public class ClothesControllerTests {
 
         response.andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
+
+    @Test
+    void getClothes_whenETagMatches_shouldReturnNotModifiedWithoutQuerying() throws Exception {
+        Mockito.clearInvocations(clothesService);
+        Mockito.when(clothesService.getVersion()).thenReturn(42L);
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.get("/clothes/1").header("If-None-Match", "\"clothes-42\"")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isNotModified());
+        Mockito.verify(clothesService, Mockito.never()).getClothes(Mockito.anyLong());
+    }
+
+    @Test
+    void getAllClothes_whenIncludeTotalIsSet_shouldReturnTotalHeaders() throws Exception {
+        Clothes clothes = new Clothes(1L, new Color(1L, "testColor"), new ClothesType(1L, "testType", ClothesLayer.BASE_LAYER));
+        Mockito.when(clothesService.getAllClothes(Mockito.anyInt(), Mockito.anyInt(), Mockito.any())).thenReturn(List.of(ClothesView.of(clothes)));
+        Mockito.when(clothesService.countClothes()).thenReturn(new TableStatistics.Total(250_000, false));
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/clothes").param("includeTotal", "true"));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(TotalCount.HEADER, "250000"))
+                .andExpect(MockMvcResultMatchers.header().string(TotalCount.EXACT_HEADER, "false"));
+    }
+
+    @Test
+    void getAllClothes_whenIncludeTotalIsNotSet_shouldNotCount() throws Exception {
+        Mockito.clearInvocations(clothesService);
+        Mockito.when(clothesService.getAllClothes(Mockito.anyInt(), Mockito.anyInt(), Mockito.any())).thenReturn(List.of());
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/clothes"));
+
+        response.andExpect(MockMvcResultMatchers.status().isNoContent())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(TotalCount.HEADER));
+        Mockito.verify(clothesService, Mockito.never()).countClothes();
+    }
+
+    @Test
+    void saveClothesBatch_whenParametersAreValid_shouldReturnCreatedIdsInOrder() throws Exception {
+        List<ClothesRequestDTO> requests = List.of(new ClothesRequestDTO(1L, 1L), new ClothesRequestDTO(2L, 1L));
+
+        Mockito.when(clothesService.saveAllClothes(List.of(
+                new ClothesService.ClothesIds(1L, 1L),
+                new ClothesService.ClothesIds(2L, 1L)
+        ))).thenReturn(List.of(5L, 6L));
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/clothes/batch").content(objectMapper.writeValueAsString(requests)).contentType(MediaType.APPLICATION_JSON));
+
+        response.andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0]").value(5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1]").value(6));
+    }
+
+    @Test
+    void saveClothesBatch_whenServiceRejectsRequest_shouldReturnBadRequestStatus() throws Exception {
+        Mockito.when(clothesService.saveAllClothes(Mockito.anyList())).thenThrow(new IllegalArgumentException());
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/clothes/batch").content("[{\"colorId\":999,\"typeId\":1}]").contentType(MediaType.APPLICATION_JSON));
+
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void importClothes_whenBodyIsCsv_shouldReturnReport() throws Exception {
+        ClothesImporter.ImportReport report = new ClothesImporter.ImportReport(3, 1, 1,
+                List.of(new ClothesImporter.LineError(3, "Color mauve does not exist")), 5, 200.0);
+        Mockito.when(clothesImporter.importClothes(Mockito.any(), Mockito.eq(ClothesImporter.Format.CSV)))
+                .thenReturn(report);
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/clothes/import")
+                .contentType("text/csv")
+                .content("color,type\nblack,shirt\nmauve,shirt\n"));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.imported").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    void importClothes_whenCsvHeaderIsInvalid_shouldReturnBadRequestStatus() throws Exception {
+        Mockito.when(clothesImporter.importClothes(Mockito.any(), Mockito.eq(ClothesImporter.Format.CSV)))
+                .thenThrow(new IllegalArgumentException("CSV header must have color and type columns"));
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/clothes/import")
+                .contentType("text/csv")
+                .content("colour,kind\n"));
+
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
 }
@@ -18,6 +18,7 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import x0j3m.virtualwardrobe.model.ClothesLayer;
 import x0j3m.virtualwardrobe.model.ClothesType;
+import x0j3m.virtualwardrobe.model.ClothesTypeView;
 import x0j3m.virtualwardrobe.model.Color;
 import x0j3m.virtualwardrobe.service.ClothesTypeService;
 
@@ -100,7 +101,8 @@ public class ClothesTypeControllerTests {
         ClothesType clothesType1 = new ClothesType(1L, "testName1", ClothesLayer.BASE_LAYER);
         ClothesType clothesType2 = new ClothesType(2L, "testName2", ClothesLayer.MID_LAYER);
         ClothesType clothesType3 = new ClothesType(3L, "testName3", ClothesLayer.OUTER_LAYER);
-        List<ClothesType> clothestypes = List.of(clothesType1, clothesType2, clothesType3);
+        List<ClothesTypeView> clothestypes = List.of(
+                ClothesTypeView.of(clothesType1), ClothesTypeView.of(clothesType2), ClothesTypeView.of(clothesType3));
         Mockito.when(clothesTypeService.getAllClothesTypes(
                 Mockito.anyInt(), Mockito.anyInt(), Mockito.any())
         ).thenReturn(clothestypes);
@@ -353,4 +355,18 @@ public class ClothesTypeControllerTests {
 
         response.andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
+
+    @Test
+    void getAllClothesTypes_whenETagMatches_shouldReturnNotModifiedWithoutQuerying() throws Exception {
+        Mockito.clearInvocations(clothesTypeService);
+        Mockito.when(clothesTypeService.getVersion()).thenReturn(42L);
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.get("/clothes-types").header("If-None-Match", "\"clothes-types-42\"")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isNotModified());
+        Mockito.verify(clothesTypeService, Mockito.never())
+                .getAllClothesTypes(Mockito.anyInt(), Mockito.anyInt(), Mockito.any());
+    }
 }
@@ -1,6 +1,7 @@
 package x0j3m.virtualwardrobe.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -10,16 +11,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import x0j3m.virtualwardrobe.model.Color;
+import x0j3m.virtualwardrobe.model.ColorView;
 import x0j3m.virtualwardrobe.service.ColorService;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @WebMvcTest(controllers = ColorController.class)
 @AutoConfigureMockMvc(addFilters = false)
@@ -82,7 +88,7 @@ public class ColorControllerTests {
         Color color1 = new Color(1L, "testColor1");
         Color color2 = new Color(2L, "testColor2");
         Color color3 = new Color(3L, "testColor3");
-        List<Color> colorsIterable = Arrays.asList(color1, color2, color3);
+        List<ColorView> colorsIterable = Arrays.asList(ColorView.of(color1), ColorView.of(color2), ColorView.of(color3));
         Mockito.when(colorService.getAllColors(Mockito.anyInt(), Mockito.anyInt(), Mockito.any())).thenReturn(colorsIterable);
 
         ResultActions response = mockMvc.perform(
@@ -100,6 +106,61 @@ public class ColorControllerTests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$[2].name").value("testColor3"));
     }
 
+    @Test
+    void getAllColors_whenAfterIsEmpty_shouldReturnFirstKeysetPageWithNextCursor() throws Exception {
+        List<ColorView> colors = List.of(new ColorView(1L, "black"), new ColorView(2L, "blue"));
+        Mockito.when(colorService.getAllColors(Mockito.eq(ScrollPosition.keyset()), Mockito.eq(2), Mockito.any()))
+                .thenReturn(Window.from(colors, index -> ScrollPosition.forward(
+                        Map.of("name", colors.get(index).name(), "id", colors.get(index).id())), true));
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.get("/colors").param("after", "").param("size", "2").param("sort", "name")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].name").value("blue"));
+        String cursor = response.andReturn().getResponse().getHeader(KeysetCursor.NEXT_CURSOR_HEADER);
+        Assertions.assertEquals(ScrollPosition.forward(Map.of("name", "blue", "id", 2L)),
+                KeysetCursor.decode(cursor, Sort.by("name"), Color.class));
+    }
+
+    @Test
+    void getAllColors_whenLastKeysetPage_shouldNotReturnNextCursor() throws Exception {
+        String cursor = KeysetCursor.encode(ScrollPosition.forward(Map.of("name", "blue", "id", 2L)));
+        Mockito.when(colorService.getAllColors(
+                        Mockito.eq(ScrollPosition.forward(Map.of("name", "blue", "id", 2L))), Mockito.anyInt(), Mockito.any()))
+                .thenReturn(Window.from(List.of(new ColorView(3L, "green")), index -> ScrollPosition.keyset(), false));
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.get("/colors").param("after", cursor).param("sort", "name")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("green"))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(KeysetCursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAllColors_whenCursorWasMadeForOtherSort_shouldReturnBadRequestStatus() throws Exception {
+        String cursor = KeysetCursor.encode(ScrollPosition.forward(Map.of("name", "blue", "id", 2L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/colors").param("after", cursor).param("sort", "id"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/colors").param("after", cursor))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void getAllColors_whenCursorIsInvalid_shouldReturnBadRequestStatus() throws Exception {
+        String cursor = KeysetCursor.encode(ScrollPosition.forward(Map.of("shade", "dark")));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/colors").param("after", cursor))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/colors").param("after", "not a cursor"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
     @Test
     void saveColor_whenColorDoesNotExist_shouldReturnSavedPathInHeader() throws Exception {
         Color color = new Color("testColor");
@@ -258,4 +319,33 @@ public class ColorControllerTests {
 
         response.andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
+
+    @Test
+    void getAllColors_whenETagMatches_shouldReturnNotModifiedWithoutQuerying() throws Exception {
+        Mockito.clearInvocations(colorService);
+        Mockito.when(colorService.getVersion()).thenReturn(42L);
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.get("/colors").header("If-None-Match", "\"colors-42\"")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"colors-42\""));
+        Mockito.verify(colorService, Mockito.never()).getAllColors(Mockito.anyInt(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    void getAllColors_whenETagDiffers_shouldReturnColorsWithETag() throws Exception {
+        Mockito.when(colorService.getVersion()).thenReturn(43L);
+        Mockito.when(colorService.getAllColors(Mockito.anyInt(), Mockito.anyInt(), Mockito.any()))
+                .thenReturn(List.of(new ColorView(1L, "testColor")));
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.get("/colors").header("If-None-Match", "\"colors-42\"")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"colors-43\""))
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "no-cache, private"));
+    }
 }
@@ -0,0 +1,141 @@
+package x0j3m.virtualwardrobe.web;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import x0j3m.virtualwardrobe.model.ClothesLayer;
+import x0j3m.virtualwardrobe.service.ClothesService;
+import x0j3m.virtualwardrobe.service.OutfitEngine;
+
+import java.util.List;
+import java.util.Set;
+
+@WebMvcTest(controllers = OutfitController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@ExtendWith(MockitoExtension.class)
+public class OutfitControllerTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        OutfitEngine outfitEngine() {
+            return Mockito.mock(OutfitEngine.class);
+        }
+
+        @Bean
+        ClothesService clothesService() {
+            return Mockito.mock(ClothesService.class);
+        }
+    }
+
+    @Autowired
+    private OutfitEngine outfitEngine;
+    @Autowired
+    private ClothesService clothesService;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(outfitEngine, clothesService);
+    }
+
+    @Test
+    void generateOutfits_whenOutfitsFound_shouldReturnThemWithEtagAndOkStatus() throws Exception {
+        Mockito.when(clothesService.getVersion()).thenReturn(5L);
+        Mockito.when(outfitEngine.generate(Mockito.any())).thenReturn(new OutfitEngine.Result(List.of(new OutfitEngine.Outfit(List.of(
+                new OutfitEngine.Item(1L, ClothesLayer.BASE_LAYER, 2L),
+                new OutfitEngine.Item(3L, ClothesLayer.HEADWEAR, 2L)))), false));
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/outfits/generate")
+                .param("required", "BASE_LAYER")
+                .param("optional", "HEADWEAR")
+                .param("colors", "2,4")
+                .param("maxColors", "2")
+                .param("limit", "5"));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"clothes-5\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].items[0].id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].items[1].layer").value("HEADWEAR"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].items[1].colorId").value(2));
+        ArgumentCaptor<OutfitEngine.Query> query = ArgumentCaptor.forClass(OutfitEngine.Query.class);
+        Mockito.verify(outfitEngine).generate(query.capture());
+        Assertions.assertEquals(new OutfitEngine.Query(List.of(ClothesLayer.BASE_LAYER), List.of(ClothesLayer.HEADWEAR),
+                Set.of(2L, 4L), 2, 5), query.getValue());
+    }
+
+    @Test
+    void generateOutfits_whenNoParameters_shouldUseDefaultLayers() throws Exception {
+        Mockito.when(outfitEngine.generate(Mockito.any())).thenReturn(new OutfitEngine.Result(List.of(), false));
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/outfits/generate"));
+
+        response.andExpect(MockMvcResultMatchers.status().isNoContent());
+        ArgumentCaptor<OutfitEngine.Query> query = ArgumentCaptor.forClass(OutfitEngine.Query.class);
+        Mockito.verify(outfitEngine).generate(query.capture());
+        Assertions.assertEquals(List.of(ClothesLayer.BASE_LAYER, ClothesLayer.BOTTOMWEAR, ClothesLayer.FOOTWEAR), query.getValue().required());
+        Assertions.assertEquals(3, query.getValue().maxColors());
+        Assertions.assertEquals(20, query.getValue().limit());
+    }
+
+    @Test
+    void generateOutfits_whenSearchIsTruncated_shouldFlagItWithoutStrongEtag() throws Exception {
+        Mockito.when(clothesService.getVersion()).thenReturn(5L);
+        Mockito.when(outfitEngine.generate(Mockito.any())).thenReturn(new OutfitEngine.Result(List.of(
+                new OutfitEngine.Outfit(List.of(new OutfitEngine.Item(1L, ClothesLayer.BASE_LAYER, 2L)))), true));
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/outfits/generate")
+                .param("required", "BASE_LAYER"));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(OutfitController.TRUNCATED_HEADER, "true"))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"clothes-5-truncated\""))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].items[0].id").value(1));
+    }
+
+    @Test
+    void generateOutfits_whenTruncatedEtagIsSent_shouldSearchAgain() throws Exception {
+        Mockito.when(clothesService.getVersion()).thenReturn(5L);
+        Mockito.when(outfitEngine.generate(Mockito.any())).thenReturn(new OutfitEngine.Result(List.of(), false));
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/outfits/generate")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"clothes-5-truncated\""));
+
+        response.andExpect(MockMvcResultMatchers.status().isNoContent())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(OutfitController.TRUNCATED_HEADER))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"clothes-5\""));
+        Mockito.verify(outfitEngine).generate(Mockito.any());
+    }
+
+    @Test
+    void generateOutfits_whenQueryIsInvalid_shouldReturnBadRequestStatus() throws Exception {
+        Mockito.when(outfitEngine.generate(Mockito.any())).thenThrow(new IllegalArgumentException());
+
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/outfits/generate").param("limit", "0"));
+
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void generateOutfits_whenLayerIsUnknown_shouldReturnBadRequestStatus() throws Exception {
+        ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/outfits/generate").param("required", "CAPE"));
+
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+}
@@ -10,7 +10,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
@@ -18,8 +20,13 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import x0j3m.virtualwardrobe.model.Role;
 import x0j3m.virtualwardrobe.model.User;
+import x0j3m.virtualwardrobe.security.PasswordHashingRejectedException;
+import x0j3m.virtualwardrobe.security.TokenService;
+import x0j3m.virtualwardrobe.service.UserAvailabilityService;
 import x0j3m.virtualwardrobe.service.UserService;
 
+import java.time.Instant;
+
 @WebMvcTest(controllers = UserController.class)
 @AutoConfigureMockMvc(addFilters = false)
 @ExtendWith(MockitoExtension.class)
@@ -34,11 +41,25 @@ public class UserControllerTests {
         UserService userService() {
             return Mockito.mock(UserService.class);
         }
+
+        @Bean
+        TokenService tokenService() {
+            return Mockito.mock(TokenService.class);
+        }
+
+        @Bean
+        UserAvailabilityService userAvailabilityService() {
+            return Mockito.mock(UserAvailabilityService.class);
+        }
     }
 
     @Autowired
     private UserService userService;
     @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private UserAvailabilityService userAvailabilityService;
+    @Autowired
     private ObjectMapper objectMapper;
 
     @Test
@@ -103,6 +124,24 @@ public class UserControllerTests {
                 .andExpect(MockMvcResultMatchers.header().string("Location", "/user/1"));
     }
 
+    @Test
+    void registerUser_whenHashingIsSaturated_shouldReturnServiceUnavailableStatus() throws Exception {
+        User user = new User("username", "password", "firstName", "lastName", "email");
+
+        Mockito.when(userService.saveUser(Mockito.any(User.class)))
+                .thenThrow(new PasswordHashingRejectedException("Password hashing capacity exceeded"));
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.post("/user/register")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(user))
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
     @Test
     void deleteUser_whenUserExists_shouldReturnNoContentStatus() throws Exception {
         User user = new User(1L, "username", "password", "firstName", "lastName", "email", Role.USER);
@@ -160,4 +199,98 @@ public class UserControllerTests {
 
         response.andExpect(MockMvcResultMatchers.status().isCreated());
     }
+
+    @Test
+    void issueToken_whenUserExists_shouldReturnToken() throws Exception {
+        User user = new User(1L, "username", "password", "firstName", "lastName", "email", Role.USER);
+        TokenService.Token token = new TokenService.Token("token", Instant.parse("2030-01-01T00:00:00Z"));
+
+        Mockito.when(userService.getUser(Mockito.anyString())).thenReturn(user);
+        Mockito.when(tokenService.issue(Mockito.any(User.class))).thenReturn(token);
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.post("/user/token")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.token").value("token"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.tokenType").value("Bearer"));
+    }
+
+    @Test
+    void issueToken_whenUserDoesNotExist_shouldReturnNotFoundStatus() throws Exception {
+        Mockito.when(userService.getUser(Mockito.anyString())).thenReturn(null);
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.post("/user/token")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    void refreshToken_whenTokenIsValid_shouldReturnNewToken() throws Exception {
+        TokenService.Token token = new TokenService.Token("newToken", Instant.parse("2030-01-01T00:00:00Z"));
+
+        Mockito.when(tokenService.refresh("oldToken")).thenReturn(token);
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.post("/user/token/refresh")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer oldToken")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.token").value("newToken"));
+    }
+
+    @Test
+    void refreshToken_whenTokenIsNotValid_shouldReturnUnauthorizedStatus() throws Exception {
+        Mockito.when(tokenService.refresh(Mockito.anyString())).thenThrow(new BadCredentialsException("Token has been revoked"));
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.post("/user/token/refresh")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer oldToken")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isUnauthorized());
+    }
+
+    @Test
+    void revokeTokens_whenUserExists_shouldReturnNoContentStatus() throws Exception {
+        User user = new User(1L, "username", "password", "firstName", "lastName", "email", Role.USER);
+
+        Mockito.when(userService.getUser(Mockito.anyString())).thenReturn(user);
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.delete("/user/token")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isNoContent());
+        Mockito.verify(tokenService).revoke(1L);
+    }
+
+    @Test
+    void checkAvailability_whenParametersAreGiven_shouldReturnAvailability() throws Exception {
+        Mockito.when(userAvailabilityService.isUsernameAvailable("username")).thenReturn(false);
+        Mockito.when(userAvailabilityService.isEmailAvailable("email@email.com")).thenReturn(true);
+
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.get("/user/available")
+                        .param("username", "username")
+                        .param("email", "email@email.com")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.username").value(false))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.email").value(true));
+    }
+
+    @Test
+    void checkAvailability_whenNoParameterIsGiven_shouldReturnBadRequestStatus() throws Exception {
+        ResultActions response = mockMvc.perform(
+                MockMvcRequestBuilders.get("/user/available")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
 }